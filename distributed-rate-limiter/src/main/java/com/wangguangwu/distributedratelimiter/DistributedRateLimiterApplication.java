@@ -1,12 +1,15 @@
 package com.wangguangwu.distributedratelimiter;
 
+import com.wangguangwu.distributedratelimiter.config.RateLimiterRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * @author wangguangwu
  */
 @SpringBootApplication
+@ImportRuntimeHints(RateLimiterRuntimeHints.class)
 public class DistributedRateLimiterApplication {
 
     public static void main(String[] args) {
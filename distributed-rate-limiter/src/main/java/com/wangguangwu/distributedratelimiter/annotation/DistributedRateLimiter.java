@@ -1,6 +1,10 @@
 package com.wangguangwu.distributedratelimiter.annotation;
 
+import com.wangguangwu.distributedratelimiter.enums.LimitMode;
+import com.wangguangwu.distributedratelimiter.enums.LimitStrategy;
 import com.wangguangwu.distributedratelimiter.enums.LimitType;
+import com.wangguangwu.distributedratelimiter.enums.QuotaPeriod;
+import com.wangguangwu.distributedratelimiter.enums.TrafficPriority;
 import java.lang.annotation.*;
 
 /**
@@ -66,4 +70,71 @@ public @interface DistributedRateLimiter {
      */
     LimitType limitType() default LimitType.CUSTOMER;
 
+    /**
+     * 为 {@link TrafficPriority#CRITICAL} 流量预留的访问次数比例，取值 0 ~ 1。
+     * <p>
+     * 与 {@link #normalReserve()} 都为 0 时不区分优先级，默认值为 0。
+     *
+     * @return criticalReserve 关键流量的预留比例
+     */
+    double criticalReserve() default 0.0;
+
+    /**
+     * 为 {@link TrafficPriority#NORMAL} 流量预留的访问次数比例，取值 0 ~ 1。
+     * <p>
+     * 默认值为 0。
+     *
+     * @return normalReserve 普通流量的预留比例
+     */
+    double normalReserve() default 0.0;
+
+    /**
+     * 限流策略。
+     * <p>
+     * 默认值为 {@link LimitStrategy#FIXED_WINDOW}，超过上限的请求立即被拒绝。
+     * 设置为 {@link LimitStrategy#LEAKY_BUCKET} 时，请求按 {@code period / count} 的间隔排队执行，
+     * 排队时间超过 {@link #maxQueueDelay()} 才被拒绝；该策略不区分优先级。
+     *
+     * @return strategy 限流策略
+     */
+    LimitStrategy strategy() default LimitStrategy.FIXED_WINDOW;
+
+    /**
+     * 漏桶策略下允许的最大排队时间，单位毫秒，默认为 0，即不排队。
+     * <p>
+     * 只能用于返回值为 {@link java.util.concurrent.CompletionStage}、{@code Mono} 或 {@code Flux} 的方法，
+     * 这些方法在排队期间不会占用请求线程；同步方法排队会阻塞 Servlet 线程，设置大于 0 的值时启动失败。
+     *
+     * @return maxQueueDelay 最大排队时间
+     */
+    long maxQueueDelay() default 0;
+
+    /**
+     * 长周期配额，即 {@link #quotaPeriod()} 内允许的最大访问次数，默认为 0，即不限制配额。
+     * <p>
+     * 配额与 {@link #period()}、{@link #count()} 定义的短周期限流同时生效。
+     * 配额用量在本地汇总后异步批量写回 Redis，请求只读本地状态，
+     * 因此配额最多被超用其他节点在一个写回间隔内放行的请求数。
+     *
+     * @return quota 长周期配额
+     */
+    long quota() default 0;
+
+    /**
+     * 长周期配额的统计周期，默认为 {@link QuotaPeriod#MONTH}。
+     *
+     * @return quotaPeriod 配额周期
+     */
+    QuotaPeriod quotaPeriod() default QuotaPeriod.MONTH;
+
+    /**
+     * 限流规则的生效方式，默认为 {@link LimitMode#ENFORCE}。
+     * <p>
+     * 设置为 {@link LimitMode#SHADOW} 时请求始终放行，限流判定在影子线程池中使用 {@code shadow:} 前缀的独立限流键完成，
+     * 结果记录到 {@code rate.limiter.requests} 指标，用于上线新的限流值之前评估其拒绝比例。
+     *
+     * @return mode 生效方式
+     */
+    LimitMode mode() default LimitMode.ENFORCE;
+
 }
@@ -1,57 +1,58 @@
 package com.wangguangwu.distributedratelimiter.aspect;
 
 import com.wangguangwu.distributedratelimiter.annotation.DistributedRateLimiter;
+import com.wangguangwu.distributedratelimiter.backend.RateLimitBackend;
 import com.wangguangwu.distributedratelimiter.context.ResponseContext;
-import com.wangguangwu.distributedratelimiter.enums.LimitType;
-import com.wangguangwu.distributedratelimiter.util.IpAddressUtil;
-import jakarta.annotation.PostConstruct;
+import com.wangguangwu.distributedratelimiter.enums.IpAccess;
+import com.wangguangwu.distributedratelimiter.enums.LimitMode;
+import com.wangguangwu.distributedratelimiter.enums.LimitStrategy;
+import com.wangguangwu.distributedratelimiter.enums.TrafficPriority;
+import com.wangguangwu.distributedratelimiter.ipfilter.ClientIpResolver;
+import com.wangguangwu.distributedratelimiter.ipfilter.IpAccessList;
+import com.wangguangwu.distributedratelimiter.priority.PriorityResolver;
+import com.wangguangwu.distributedratelimiter.quota.QuotaManager;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
-import org.springframework.scripting.support.ResourceScriptSource;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.io.Serializable;
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 自定义切面，处理分布式限流注解 {@link DistributedRateLimiter}。
- * 通过 Lua 脚本在 Redis 中实现分布式限流。
+ * 限流判定委托给 {@link RateLimitBackend}，默认通过 Lua 脚本在 Redis 中实现分布式限流。
+ * 配置了长周期配额时，先由 {@link QuotaManager} 在本地判定配额，再同步判定短周期限流。
+ * 影子模式下请求线程只解析限流键并提交任务，判定在影子线程池中使用独立的限流键完成，结果只记录到指标。
+ * 限流判定之前先查询 {@link IpAccessList}，命中白名单的请求直接执行，命中黑名单的请求直接降级，都不会访问限流后端。
+ * 判定逻辑由 {@link RateLimitEvaluator} 实现，本切面只负责在请求线程上执行判定、排队与降级。
+ * 仅在 Servlet 应用中生效，WebFlux 应用由 {@link ReactiveDistributedRateLimitAspect} 处理。
  *
  * @author wangguangwu
  */
 @Aspect
 @Component
 @Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class DistributedRateLimitAspect {
 
-    private static final String LIMIT_LUA_PATH = "limit.lua";
-
     @Resource
-    private RedisTemplate<String, Serializable> limitRedisTemplate;
+    private RateLimitEvaluator rateLimitEvaluator;
 
-    private DefaultRedisScript<Long> redisScript;
+    @Resource
+    private PriorityResolver priorityResolver;
 
-    /**
-     * 初始化方法，在 Bean 创建时加载 Lua 脚本。
-     */
-    @PostConstruct
-    public void init() {
-        redisScript = new DefaultRedisScript<>();
-        redisScript.setResultType(Long.class);
-        redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LIMIT_LUA_PATH)));
-    }
+    @Resource
+    private ClientIpResolver clientIpResolver;
 
     /**
      * 定义切点，匹配使用 {@link DistributedRateLimiter} 注解的方法。
@@ -71,21 +72,40 @@ public class DistributedRateLimitAspect {
      */
     @Around(value = "pointcut(distributedRateLimiter)", argNames = "joinPoint,distributedRateLimiter")
     public Object around(ProceedingJoinPoint joinPoint, DistributedRateLimiter distributedRateLimiter) {
-        // 获取速率和时间要求
-        int limitPeriod = distributedRateLimiter.period();
-        int limitCount = distributedRateLimiter.count();
+        String ip = rateLimitEvaluator.needsIp(distributedRateLimiter) ? clientIpResolver.resolve() : null;
+        IpAccess access = rateLimitEvaluator.checkIp(ip, distributedRateLimiter);
+        if (access == IpAccess.ALLOW) {
+            return proceed(joinPoint);
+        }
+        if (access == IpAccess.BLOCK) {
+            if (distributedRateLimiter.mode() == LimitMode.SHADOW) {
+                return proceed(joinPoint);
+            }
+            log.info("IP {} 命中黑名单，请求被拒绝", ip);
+            fallback();
+            return null;
+        }
 
-        // 生成 Redis 键，区分限流类型
-        String key = getKey(distributedRateLimiter.key(), distributedRateLimiter.limitType());
-        String redisKey = StringUtils.join(distributedRateLimiter.prefix(), key);
+        try {
+            // 生成限流键，区分限流类型
+            String limitKey = rateLimitEvaluator.limitKey(distributedRateLimiter, ip);
 
-        List<String> keys = Collections.singletonList(redisKey);
+            if (distributedRateLimiter.mode() == LimitMode.SHADOW) {
+                rateLimitEvaluator.evaluateShadow(limitKey, resolvePriority(distributedRateLimiter), distributedRateLimiter);
+                return joinPoint.proceed();
+            }
 
-        try {
-            Long result = limitRedisTemplate.execute(redisScript, keys, limitCount, limitPeriod);
+            if (distributedRateLimiter.strategy() == LimitStrategy.LEAKY_BUCKET) {
+                return aroundLeakyBucket(joinPoint, limitKey, distributedRateLimiter);
+            }
 
             // 判断是否获得令牌
-            if (Boolean.TRUE.equals(result != null && result == 1)) {
+            TrafficPriority priority = resolvePriority(distributedRateLimiter);
+            boolean acquired = rateLimitEvaluator.acquireQuota(limitKey, distributedRateLimiter)
+                    .map(quotaKey -> rateLimitEvaluator.acquireWindow(limitKey, quotaKey, priority, distributedRateLimiter))
+                    .orElse(false);
+            rateLimitEvaluator.record(distributedRateLimiter, acquired);
+            if (acquired) {
                 log.info("获取令牌成功，请求执行");
                 return joinPoint.proceed();
             } else {
@@ -100,6 +120,80 @@ public class DistributedRateLimitAspect {
         }
     }
 
+    /**
+     * 漏桶策略：从后端获取排队时间，等待到分配的时间点后再执行方法。
+     * <p>
+     * 返回值为 {@link CompletionStage} 的方法通过延迟执行器调度，不占用请求线程；
+     * 其他方法只能在请求线程上等待，等待时间不超过 {@link DistributedRateLimiter#maxQueueDelay()}。
+     * </p>
+     */
+    private Object aroundLeakyBucket(ProceedingJoinPoint joinPoint, String limitKey,
+                                     DistributedRateLimiter distributedRateLimiter) throws Throwable {
+        long wait = rateLimitEvaluator.acquireQuota(limitKey, distributedRateLimiter)
+                .map(quotaKey -> rateLimitEvaluator.reserve(limitKey, quotaKey, distributedRateLimiter))
+                .orElse(-1L);
+        rateLimitEvaluator.record(distributedRateLimiter, wait >= 0);
+        if (wait < 0) {
+            fallback();
+            return null;
+        }
+
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (wait > 0 && CompletionStage.class.isAssignableFrom(returnType)) {
+            log.info("请求排队 {} ms 后执行", wait);
+            return CompletableFuture.runAsync(() -> {
+                    }, CompletableFuture.delayedExecutor(wait, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> proceedAsync(joinPoint));
+        }
+
+        // 同步方法的排队时间在启动时被限制为 0，这里只兜底未经校验的定义
+        if (wait > 0) {
+            log.info("请求排队 {} ms 后执行", wait);
+            try {
+                TimeUnit.MILLISECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("排队等待被中断，走降级处理");
+                fallback();
+                return null;
+            }
+        }
+        return joinPoint.proceed();
+    }
+
+    /**
+     * 不经过限流直接执行目标方法，目标方法抛出异常时走降级处理。
+     */
+    private Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            log.error("限流发生异常，走降级处理: {}", e.getMessage(), e);
+            fallback();
+            return null;
+        }
+    }
+
+    /**
+     * 执行返回值为 {@link CompletionStage} 的目标方法。
+     */
+    @SuppressWarnings("unchecked")
+    private CompletionStage<Object> proceedAsync(ProceedingJoinPoint joinPoint) {
+        try {
+            return (CompletionStage<Object>) joinPoint.proceed();
+        } catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 配置了优先级预留时解析请求优先级，否则不需要优先级。
+     */
+    private TrafficPriority resolvePriority(DistributedRateLimiter distributedRateLimiter) {
+        return rateLimitEvaluator.hasPriorityReserve(distributedRateLimiter)
+                ? priorityResolver.resolve() : TrafficPriority.NORMAL;
+    }
+
     /**
      * 降级处理方法。
      * 在限流条件触发时，返回错误信息给客户端。
@@ -116,22 +210,4 @@ public class DistributedRateLimitAspect {
             }
         }
     }
-
-    /**
-     * 根据限流类型生成 Redis 键。
-     *
-     * @param customKey 自定义键
-     * @param limitType 限流类型
-     * @return 生成的 Redis 键
-     */
-    private String getKey(String customKey, LimitType limitType) {
-        String key = switch (limitType) {
-            case IP -> IpAddressUtil.getIpAddress();
-            case CUSTOMER -> customKey;
-        };
-        if (StringUtils.isBlank(key)) {
-            throw new IllegalArgumentException("限流键不可为空");
-        }
-        return key;
-    }
 }
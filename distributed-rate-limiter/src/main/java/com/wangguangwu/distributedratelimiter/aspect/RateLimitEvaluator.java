@@ -0,0 +1,254 @@
+package com.wangguangwu.distributedratelimiter.aspect;
+
+import com.wangguangwu.distributedratelimiter.annotation.DistributedRateLimiter;
+import com.wangguangwu.distributedratelimiter.backend.RateLimitBackend;
+import com.wangguangwu.distributedratelimiter.enums.IpAccess;
+import com.wangguangwu.distributedratelimiter.enums.LimitMode;
+import com.wangguangwu.distributedratelimiter.enums.LimitStrategy;
+import com.wangguangwu.distributedratelimiter.enums.LimitType;
+import com.wangguangwu.distributedratelimiter.enums.TrafficPriority;
+import com.wangguangwu.distributedratelimiter.ipfilter.IpAccessList;
+import com.wangguangwu.distributedratelimiter.metrics.RateLimitMetrics;
+import com.wangguangwu.distributedratelimiter.quota.QuotaManager;
+import com.wangguangwu.distributedratelimiter.shadow.ShadowExecutor;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * 分布式限流的判定逻辑，由 {@link DistributedRateLimitAspect} 与 {@link ReactiveDistributedRateLimitAspect} 共用。
+ * <p>
+ * 负责 IP 黑白名单、限流键的生成、长周期配额的获取与归还、短周期限流与漏桶排队的后端调用、优先级预留的校验、
+ * 影子模式的评估以及指标记录。两个切面只负责解析请求中的 IP 与优先级，并决定在请求线程上阻塞执行还是组装成 {@code Mono}。
+ * </p>
+ * <p>
+ * 短周期限流或漏桶拒绝请求、后端调用抛出异常时，本类负责归还已经获取的配额，调用方不需要再处理。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+@Component
+public class RateLimitEvaluator {
+
+    /**
+     * 影子模式限流键的前缀，与生效的限流计数相互独立
+     */
+    private static final String SHADOW_PREFIX = "shadow:";
+
+    /**
+     * 未配置长周期配额时 {@link #acquireQuota} 返回的配额键，不需要归还
+     */
+    private static final String NO_QUOTA = "";
+
+    @Resource
+    private RateLimitBackend rateLimitBackend;
+
+    @Resource
+    private QuotaManager quotaManager;
+
+    @Resource
+    private RateLimitMetrics rateLimitMetrics;
+
+    @Resource
+    private IpAccessList ipAccessList;
+
+    @Resource
+    private ShadowExecutor shadowExecutor;
+
+    /**
+     * 是否需要解析请求方的 IP：名单为空且不按 IP 限流时不需要。
+     *
+     * @param distributedRateLimiter 限流注解
+     * @return 需要时返回 true
+     */
+    public boolean needsIp(DistributedRateLimiter distributedRateLimiter) {
+        return distributedRateLimiter.limitType() == LimitType.IP || !ipAccessList.isEmpty();
+    }
+
+    /**
+     * 查询 IP 命中的名单，命中黑名单时记录一次拒绝。
+     *
+     * @param ip                     请求方的 IP 地址，可以为 null
+     * @param distributedRateLimiter 限流注解
+     * @return 判定结果
+     */
+    public IpAccess checkIp(String ip, DistributedRateLimiter distributedRateLimiter) {
+        IpAccess access = ipAccessList.check(ip);
+        if (access == IpAccess.BLOCK) {
+            rateLimitMetrics.record(distributedRateLimiter.key(), distributedRateLimiter.mode(), false);
+        }
+        return access;
+    }
+
+    /**
+     * 是否配置了优先级预留，未配置时不需要解析请求优先级。
+     *
+     * @param distributedRateLimiter 限流注解
+     * @return 配置了预留时返回 true
+     */
+    public boolean hasPriorityReserve(DistributedRateLimiter distributedRateLimiter) {
+        return distributedRateLimiter.criticalReserve() > 0 || distributedRateLimiter.normalReserve() > 0;
+    }
+
+    /**
+     * 根据限流类型生成带前缀的限流键。
+     *
+     * @param distributedRateLimiter 限流注解
+     * @param ip                     请求方的 IP 地址
+     * @return 限流键
+     * @throws IllegalArgumentException 限流键为空
+     */
+    public String limitKey(DistributedRateLimiter distributedRateLimiter, String ip) {
+        String key = switch (distributedRateLimiter.limitType()) {
+            case IP -> ip;
+            case CUSTOMER -> distributedRateLimiter.key();
+        };
+        if (StringUtils.isBlank(key)) {
+            throw new IllegalArgumentException("限流键不可为空");
+        }
+        return StringUtils.join(distributedRateLimiter.prefix(), key);
+    }
+
+    /**
+     * 记录一次生效模式下的判定结果。
+     *
+     * @param distributedRateLimiter 限流注解
+     * @param admitted               是否放行
+     */
+    public void record(DistributedRateLimiter distributedRateLimiter, boolean admitted) {
+        rateLimitMetrics.record(distributedRateLimiter.key(), LimitMode.ENFORCE, admitted);
+    }
+
+    /**
+     * 配额键的总用量是否已经加载到本地；未配置配额时视为已加载。未加载时 {@link #acquireQuota} 需要访问后端。
+     *
+     * @param limitKey               限流键
+     * @param distributedRateLimiter 限流注解
+     * @return 已加载时返回 true
+     */
+    public boolean isQuotaLoaded(String limitKey, DistributedRateLimiter distributedRateLimiter) {
+        return distributedRateLimiter.quota() <= 0
+                || quotaManager.isLoaded(limitKey, distributedRateLimiter.quotaPeriod());
+    }
+
+    /**
+     * 获取一次长周期配额。
+     *
+     * @param limitKey               限流键
+     * @param distributedRateLimiter 限流注解
+     * @return 被扣减的配额键，交给 {@link #acquireWindow} 或 {@link #reserve} 在拒绝时归还；配额已用完时为空
+     */
+    public Optional<String> acquireQuota(String limitKey, DistributedRateLimiter distributedRateLimiter) {
+        if (distributedRateLimiter.quota() <= 0) {
+            return Optional.of(NO_QUOTA);
+        }
+        return Optional.ofNullable(
+                quotaManager.acquire(limitKey, distributedRateLimiter.quota(), distributedRateLimiter.quotaPeriod()));
+    }
+
+    /**
+     * 在已经获取配额之后判定短周期限流，拒绝或抛出异常时归还配额。
+     *
+     * @param limitKey               限流键
+     * @param quotaKey               {@link #acquireQuota} 返回的配额键
+     * @param priority               请求优先级，未配置优先级预留时忽略
+     * @param distributedRateLimiter 限流注解
+     * @return 获得许可返回 true
+     */
+    public boolean acquireWindow(String limitKey, String quotaKey, TrafficPriority priority,
+                                 DistributedRateLimiter distributedRateLimiter) {
+        boolean acquired = false;
+        try {
+            acquired = tryAcquireWindow(limitKey, priority, distributedRateLimiter);
+        } finally {
+            if (!acquired) {
+                releaseQuota(quotaKey);
+            }
+        }
+        return acquired;
+    }
+
+    /**
+     * 在已经获取配额之后按漏桶策略预约执行时间，排队时间超过上限或抛出异常时归还配额。
+     *
+     * @param limitKey               限流键
+     * @param quotaKey               {@link #acquireQuota} 返回的配额键
+     * @param distributedRateLimiter 限流注解
+     * @return 需要等待的毫秒数，0 表示立即执行，-1 表示被拒绝
+     */
+    public long reserve(String limitKey, String quotaKey, DistributedRateLimiter distributedRateLimiter) {
+        long wait = -1;
+        try {
+            wait = rateLimitBackend.reserve(limitKey, distributedRateLimiter.count(),
+                    distributedRateLimiter.period(), distributedRateLimiter.maxQueueDelay());
+        } finally {
+            if (wait < 0) {
+                releaseQuota(quotaKey);
+            }
+        }
+        return wait;
+    }
+
+    /**
+     * 后端调用是否会阻塞当前线程。
+     *
+     * @return 会阻塞时返回 true
+     */
+    public boolean isBlocking() {
+        return rateLimitBackend.isBlocking();
+    }
+
+    /**
+     * 影子模式：在影子线程池中使用独立的限流键计算限流结果并记录到指标，不影响请求。
+     * <p>
+     * 请求线程只负责提交任务，线程池队列已满时丢弃本次评估。漏桶策略只看排队时间是否超过上限，不等待。
+     * </p>
+     *
+     * @param limitKey               限流键
+     * @param priority               请求优先级
+     * @param distributedRateLimiter 限流注解
+     */
+    public void evaluateShadow(String limitKey, TrafficPriority priority, DistributedRateLimiter distributedRateLimiter) {
+        String shadowKey = SHADOW_PREFIX + limitKey;
+        shadowExecutor.execute(() -> {
+            try {
+                boolean admitted = acquireQuota(shadowKey, distributedRateLimiter)
+                        .map(quotaKey -> distributedRateLimiter.strategy() == LimitStrategy.LEAKY_BUCKET
+                                ? reserve(shadowKey, quotaKey, distributedRateLimiter) >= 0
+                                : acquireWindow(shadowKey, quotaKey, priority, distributedRateLimiter))
+                        .orElse(false);
+                rateLimitMetrics.record(distributedRateLimiter.key(), LimitMode.SHADOW, admitted);
+            } catch (Exception e) {
+                log.warn("影子限流评估失败: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void releaseQuota(String quotaKey) {
+        if (!NO_QUOTA.equals(quotaKey)) {
+            quotaManager.release(quotaKey);
+        }
+    }
+
+    /**
+     * 配置了优先级预留时按请求优先级获取许可，否则按总次数获取许可。
+     */
+    private boolean tryAcquireWindow(String limitKey, TrafficPriority priority, DistributedRateLimiter distributedRateLimiter) {
+        int limitCount = distributedRateLimiter.count();
+        int limitPeriod = distributedRateLimiter.period();
+        double criticalReserve = distributedRateLimiter.criticalReserve();
+        double normalReserve = distributedRateLimiter.normalReserve();
+        if (!hasPriorityReserve(distributedRateLimiter)) {
+            return rateLimitBackend.tryAcquire(limitKey, limitCount, limitPeriod);
+        }
+        if (criticalReserve < 0 || normalReserve < 0 || criticalReserve + normalReserve > 1) {
+            throw new IllegalArgumentException("优先级预留比例不合法");
+        }
+        return rateLimitBackend.tryAcquire(limitKey, limitCount, limitPeriod, priority,
+                (int) Math.round(limitCount * criticalReserve), (int) Math.round(limitCount * normalReserve));
+    }
+}
@@ -0,0 +1,186 @@
+package com.wangguangwu.distributedratelimiter.aspect;
+
+import com.wangguangwu.distributedratelimiter.annotation.DistributedRateLimiter;
+import com.wangguangwu.distributedratelimiter.enums.IpAccess;
+import com.wangguangwu.distributedratelimiter.enums.LimitMode;
+import com.wangguangwu.distributedratelimiter.enums.LimitStrategy;
+import com.wangguangwu.distributedratelimiter.enums.TrafficPriority;
+import com.wangguangwu.distributedratelimiter.ipfilter.ClientIpResolver;
+import com.wangguangwu.distributedratelimiter.priority.PriorityResolver;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * 响应式切面，在 WebFlux 应用中处理分布式限流注解 {@link DistributedRateLimiter}。
+ * <p>
+ * 只处理返回值为 {@link Mono} 或 {@link Flux} 的方法。限流键从 Reactor 上下文中的 {@link ServerWebExchange} 解析，
+ * 阻塞的后端调用切换到弹性线程池执行，漏桶排队通过 {@link Mono#delay(Duration)} 实现，不会阻塞事件循环线程。
+ * 长周期配额在本地判定，影子模式在影子线程池中判定，IP 黑白名单在限流判定之前生效，语义与 Servlet 切面一致。
+ * 判定逻辑由 {@link RateLimitEvaluator} 实现，本切面只负责把判定组装成不阻塞事件循环线程的 {@link Mono}。
+ * 请求被拒绝时以 429 状态码的 {@link ResponseStatusException} 结束，命中黑名单时以 403 状态码结束。
+ * </p>
+ *
+ * @author wangguangwu
+ * @see com.wangguangwu.distributedratelimiter.config.ReactiveConfig
+ */
+@Aspect
+@Component
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDistributedRateLimitAspect {
+
+    @Resource
+    private RateLimitEvaluator rateLimitEvaluator;
+
+    @Resource
+    private PriorityResolver priorityResolver;
+
+    @Resource
+    private ClientIpResolver clientIpResolver;
+
+    /**
+     * 定义切点，匹配使用 {@link DistributedRateLimiter} 注解的方法。
+     *
+     * @param distributedRateLimiter 限流注解
+     */
+    @Pointcut("@annotation(distributedRateLimiter)")
+    public void pointcut(DistributedRateLimiter distributedRateLimiter) {
+    }
+
+    /**
+     * 环绕通知，处理限流逻辑。
+     *
+     * @param joinPoint              切入点
+     * @param distributedRateLimiter 限流注解
+     * @return 延迟到获得许可后才订阅目标方法结果的 {@link Mono} 或 {@link Flux}
+     * @throws Throwable 目标方法不是响应式方法时，原样抛出目标方法的异常
+     */
+    @Around(value = "pointcut(distributedRateLimiter)", argNames = "joinPoint,distributedRateLimiter")
+    public Object around(ProceedingJoinPoint joinPoint, DistributedRateLimiter distributedRateLimiter) throws Throwable {
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (Flux.class.isAssignableFrom(returnType)) {
+            return admit(distributedRateLimiter).thenMany(Flux.defer(() -> proceed(joinPoint)));
+        }
+        if (Mono.class.isAssignableFrom(returnType)) {
+            return admit(distributedRateLimiter).then(Mono.defer(() -> Mono.from(proceed(joinPoint))));
+        }
+        log.warn("响应式限流只支持返回 Mono 或 Flux 的方法，跳过限流: {}", joinPoint.getSignature());
+        return joinPoint.proceed();
+    }
+
+    /**
+     * 获取许可，获取成功时正常完成，需要排队时延迟完成，被拒绝时以错误结束。
+     */
+    private Mono<Void> admit(DistributedRateLimiter distributedRateLimiter) {
+        return Mono.deferContextual(context -> {
+            String ip = rateLimitEvaluator.needsIp(distributedRateLimiter)
+                    ? getExchange(context).map(exchange -> clientIpResolver.resolve(exchange.getRequest())).orElse(null)
+                    : null;
+            IpAccess access = rateLimitEvaluator.checkIp(ip, distributedRateLimiter);
+            if (access == IpAccess.ALLOW) {
+                return Mono.<Void>empty();
+            }
+            if (access == IpAccess.BLOCK) {
+                return distributedRateLimiter.mode() == LimitMode.SHADOW
+                        ? Mono.<Void>empty()
+                        : Mono.<Void>error(new ResponseStatusException(HttpStatus.FORBIDDEN, "IP 已被禁止访问"));
+            }
+            String limitKey = rateLimitEvaluator.limitKey(distributedRateLimiter, ip);
+            TrafficPriority priority = resolvePriority(context, distributedRateLimiter);
+            if (distributedRateLimiter.mode() == LimitMode.SHADOW) {
+                rateLimitEvaluator.evaluateShadow(limitKey, priority, distributedRateLimiter);
+                return Mono.<Void>empty();
+            }
+            return acquireQuota(limitKey, distributedRateLimiter).flatMap(quota -> {
+                if (quota.isEmpty()) {
+                    rateLimitEvaluator.record(distributedRateLimiter, false);
+                    return Mono.<Void>error(rejected());
+                }
+                String quotaKey = quota.get();
+                if (distributedRateLimiter.strategy() == LimitStrategy.LEAKY_BUCKET) {
+                    return call(() -> rateLimitEvaluator.reserve(limitKey, quotaKey, distributedRateLimiter))
+                            .flatMap(wait -> {
+                                rateLimitEvaluator.record(distributedRateLimiter, wait >= 0);
+                                if (wait < 0) {
+                                    return Mono.error(rejected());
+                                }
+                                return wait == 0 ? Mono.empty() : Mono.delay(Duration.ofMillis(wait)).then();
+                            });
+                }
+                return call(() -> rateLimitEvaluator.acquireWindow(limitKey, quotaKey, priority, distributedRateLimiter))
+                        .flatMap(acquired -> {
+                            rateLimitEvaluator.record(distributedRateLimiter, acquired);
+                            return acquired ? Mono.<Void>empty() : Mono.<Void>error(rejected());
+                        });
+            });
+        }).onErrorMap(e -> !(e instanceof ResponseStatusException), e -> {
+            log.error("限流发生异常，走降级处理: {}", e.getMessage(), e);
+            return rejected();
+        });
+    }
+
+    /**
+     * 配置了优先级预留时从请求中解析优先级，否则不需要优先级。
+     */
+    private TrafficPriority resolvePriority(ContextView context, DistributedRateLimiter distributedRateLimiter) {
+        if (!rateLimitEvaluator.hasPriorityReserve(distributedRateLimiter)) {
+            return TrafficPriority.NORMAL;
+        }
+        return getExchange(context)
+                .map(priorityResolver::resolve)
+                .orElse(TrafficPriority.NORMAL);
+    }
+
+    /**
+     * 长周期配额通常只读写本地状态，不需要切换线程；配额键首次出现时需要从后端加载总用量，后端会阻塞时切换到弹性线程池。
+     */
+    private Mono<Optional<String>> acquireQuota(String limitKey, DistributedRateLimiter distributedRateLimiter) {
+        Callable<Optional<String>> acquire = () -> rateLimitEvaluator.acquireQuota(limitKey, distributedRateLimiter);
+        return rateLimitEvaluator.isQuotaLoaded(limitKey, distributedRateLimiter)
+                ? Mono.fromCallable(acquire) : call(acquire);
+    }
+
+    /**
+     * 调用限流后端，后端会阻塞时切换到弹性线程池。
+     */
+    private <T> Mono<T> call(Callable<T> callable) {
+        Mono<T> mono = Mono.fromCallable(callable);
+        return rateLimitEvaluator.isBlocking() ? mono.subscribeOn(Schedulers.boundedElastic()) : mono;
+    }
+
+    private static Optional<ServerWebExchange> getExchange(ContextView context) {
+        return ServerWebExchangeContextFilter.getExchange(context);
+    }
+
+    private static ResponseStatusException rejected() {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "服务出错，请稍后重试");
+    }
+
+    private static Publisher<?> proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return (Publisher<?>) joinPoint.proceed();
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+}
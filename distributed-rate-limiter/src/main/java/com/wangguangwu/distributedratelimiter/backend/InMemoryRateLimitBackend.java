@@ -0,0 +1,283 @@
+package com.wangguangwu.distributedratelimiter.backend;
+
+import com.wangguangwu.distributedratelimiter.enums.TrafficPriority;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 纯进程内的限流后端。
+ * <p>
+ * 与 limit.lua 保持相同的语义：每个键维护一个计数器，请求通过时计数加一并刷新过期时间，
+ * 计数达到上限后拒绝请求，直到键过期。
+ * 按优先级限流、漏桶排队、配额写回时分别与 limit_priority.lua、leaky_bucket.lua、quota.lua 保持相同的语义。
+ * 每个键的判定只锁住自身的窗口对象，不同键之间互不竞争；过期窗口由后台线程定期清理。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "rate-limiter", name = "backend", havingValue = "memory")
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+
+    /**
+     * 过期窗口的清理间隔，单位秒
+     */
+    private static final long SWEEP_INTERVAL_SECONDS = 1;
+
+    private static final int PRIORITY_COUNT = TrafficPriority.values().length;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private final LongSupplier nanoClock;
+
+    private ScheduledExecutorService sweeper;
+
+    public InMemoryRateLimitBackend() {
+        this(System::nanoTime);
+    }
+
+    InMemoryRateLimitBackend(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 启动后台清理线程。
+     */
+    @PostConstruct
+    public void init() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "in-memory-rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 关闭后台清理线程。
+     */
+    @PreDestroy
+    public void destroy() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int count, int period) {
+        long periodNanos = TimeUnit.SECONDS.toNanos(period);
+        while (true) {
+            Window window = windows.computeIfAbsent(key, k -> new Window());
+            synchronized (window) {
+                // 窗口已被清理线程移除，重新获取
+                if (window.removed) {
+                    continue;
+                }
+                long now = nanoClock.getAsLong();
+                if (window.isExpired(now)) {
+                    window.current = 0;
+                }
+                if (window.current + 1 > count) {
+                    return false;
+                }
+                window.current++;
+                window.expireAt = now + periodNanos;
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int count, int period, TrafficPriority priority,
+                              int criticalReserved, int normalReserved) {
+        long periodNanos = TimeUnit.SECONDS.toNanos(period);
+        int[] reserved = {criticalReserved, normalReserved};
+        String priorityKey = key + ":priority";
+        while (true) {
+            Window window = windows.computeIfAbsent(priorityKey, k -> new Window());
+            synchronized (window) {
+                // 窗口已被清理线程移除，重新获取
+                if (window.removed) {
+                    continue;
+                }
+                long now = nanoClock.getAsLong();
+                if (window.isExpired(now)) {
+                    window.reset();
+                }
+                window.markActive(priority, now + periodNanos);
+
+                // 计算需要为活跃的更高优先级保留、且尚未被其使用的请求数
+                int floor = 0;
+                for (int p = 0; p < priority.ordinal(); p++) {
+                    if (window.isActive(p, now)) {
+                        floor += Math.max(0, reserved[p] - window.used[p]);
+                    }
+                }
+                if (window.current + 1 + floor > count) {
+                    return false;
+                }
+                window.current++;
+                window.used[priority.ordinal()]++;
+                window.expireAt = now + periodNanos;
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public long reserve(String key, int count, int period, long maxDelayMillis) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(period) / count;
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        String leakyKey = key + ":leaky";
+        while (true) {
+            Window window = windows.computeIfAbsent(leakyKey, k -> new Window());
+            synchronized (window) {
+                // 窗口已被清理线程移除，重新获取
+                if (window.removed) {
+                    continue;
+                }
+                long now = nanoClock.getAsLong();
+                // 复用窗口字段：expireAt 为下一个空闲的时间点，如果已经过去则为当前时间
+                long nextSlot = window.isExpired(now) ? now : window.expireAt;
+                long wait = nextSlot - now;
+                if (wait > maxDelayNanos) {
+                    return -1;
+                }
+                window.current = 1;
+                window.expireAt = nextSlot + intervalNanos;
+                return (long) Math.ceil(wait / 1_000_000.0);
+            }
+        }
+    }
+
+    @Override
+    public List<Long> incrementQuotas(List<String> keys, List<Long> deltas, long ttlSeconds) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        List<Long> totals = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            long delta = deltas.get(i);
+            while (true) {
+                Window window = windows.computeIfAbsent(keys.get(i), k -> new Window());
+                synchronized (window) {
+                    // 窗口已被清理线程移除，重新获取
+                    if (window.removed) {
+                        continue;
+                    }
+                    long now = nanoClock.getAsLong();
+                    // 复用窗口字段：quota 为累计用量，只在第一次写入时设置过期时间
+                    if (window.isExpired(now)) {
+                        window.quota = 0;
+                        window.expireAt = now + ttlNanos;
+                    }
+                    window.current = 1;
+                    window.quota += delta;
+                    totals.add(window.quota);
+                    break;
+                }
+            }
+        }
+        return totals;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    /**
+     * 清理已过期的窗口，避免键无限增长。
+     */
+    void sweep() {
+        long now = nanoClock.getAsLong();
+        windows.forEach((key, window) -> {
+            synchronized (window) {
+                if (window.isExpired(now) && !window.hasActivity(now)) {
+                    window.removed = true;
+                    windows.remove(key, window);
+                }
+            }
+        });
+    }
+
+    /**
+     * 当前保留的窗口数量。
+     *
+     * @return 窗口数量
+     */
+    int size() {
+        return windows.size();
+    }
+
+    /**
+     * 单个键的计数窗口，所有字段都在对象锁内访问。
+     */
+    private static final class Window {
+
+        private int current;
+
+        private long expireAt;
+
+        private boolean removed;
+
+        /**
+         * 长周期配额的累计用量，仅配额写回时使用
+         */
+        private long quota;
+
+        /**
+         * 各优先级在窗口内的请求数，仅按优先级限流时使用
+         */
+        private final int[] used = new int[PRIORITY_COUNT];
+
+        /**
+         * 各优先级的活跃截止时间，仅按优先级限流时使用
+         */
+        private final long[] activeUntil = new long[PRIORITY_COUNT];
+
+        private final boolean[] seen = new boolean[PRIORITY_COUNT];
+
+        /**
+         * 计数为 0 视为键不存在，对应 Redis 中键已过期的情况。
+         */
+        private boolean isExpired(long now) {
+            return current == 0 || now - expireAt >= 0;
+        }
+
+        private void reset() {
+            current = 0;
+            Arrays.fill(used, 0);
+        }
+
+        private void markActive(TrafficPriority priority, long until) {
+            activeUntil[priority.ordinal()] = until;
+            seen[priority.ordinal()] = true;
+        }
+
+        private boolean isActive(int priority, long now) {
+            return seen[priority] && now - activeUntil[priority] < 0;
+        }
+
+        private boolean hasActivity(long now) {
+            for (int p = 0; p < PRIORITY_COUNT; p++) {
+                if (isActive(p, now)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.wangguangwu.distributedratelimiter.backend;
+
+import com.wangguangwu.distributedratelimiter.enums.TrafficPriority;
+
+import java.util.List;
+
+/**
+ * 限流存储后端 SPI。
+ * <p>
+ * 切面只负责解析注解和生成限流键，具体的计数与判定交给后端实现。
+ * 通过配置项 {@code rate-limiter.backend} 选择实现：
+ * </p>
+ * <ul>
+ *     <li>{@code redis}（默认）- {@link RedisRateLimitBackend}，基于 Redis + Lua 的分布式限流。</li>
+ *     <li>{@code memory} - {@link InMemoryRateLimitBackend}，纯进程内实现，语义与 Lua 脚本一致，适用于单机部署、测试与压测。</li>
+ * </ul>
+ *
+ * @author wangguangwu
+ */
+public interface RateLimitBackend {
+
+    /**
+     * 尝试在指定的时间窗口内获取一次访问许可。
+     *
+     * @param key    限流键（已包含前缀）
+     * @param count  时间窗口内允许的最大访问次数
+     * @param period 时间窗口，单位秒
+     * @return 获取成功返回 true，否则返回 false
+     */
+    boolean tryAcquire(String key, int count, int period);
+
+    /**
+     * 按请求优先级尝试获取一次访问许可。
+     * <p>
+     * 活跃的高优先级流量在窗口内尚未用完的预留量不能被低优先级流量占用；
+     * 某个优先级在最近一个时间窗口内没有请求时视为空闲，其预留量可以被低优先级流量借用。
+     * </p>
+     *
+     * @param key              限流键（已包含前缀）
+     * @param count            时间窗口内允许的最大访问次数
+     * @param period           时间窗口，单位秒
+     * @param priority         请求的优先级
+     * @param criticalReserved 为 {@link TrafficPriority#CRITICAL} 预留的访问次数
+     * @param normalReserved   为 {@link TrafficPriority#NORMAL} 预留的访问次数
+     * @return 获取成功返回 true，否则返回 false
+     */
+    boolean tryAcquire(String key, int count, int period, TrafficPriority priority,
+                       int criticalReserved, int normalReserved);
+
+    /**
+     * 以漏桶方式为请求分配执行时间。
+     * <p>
+     * 请求按 {@code period / count} 的固定间隔依次排队，返回当前请求还需要等待的时间。
+     * </p>
+     *
+     * @param key            限流键（已包含前缀）
+     * @param count          时间窗口内允许执行的请求数
+     * @param period         时间窗口，单位秒
+     * @param maxDelayMillis 允许的最大排队时间，单位毫秒
+     * @return 需要等待的毫秒数；排队时间超过上限时返回 -1
+     */
+    long reserve(String key, int count, int period, long maxDelayMillis);
+
+    /**
+     * 批量累加长周期配额的用量，并返回累加后的总用量。
+     * <p>
+     * 配额用量先在各节点本地汇总，再由 {@link com.wangguangwu.distributedratelimiter.quota.QuotaManager}
+     * 定期批量写回，增量为 0 时只读取当前的总用量。
+     * </p>
+     *
+     * @param keys       配额键（已包含前缀与周期标识）
+     * @param deltas     与配额键一一对应的增量
+     * @param ttlSeconds 配额键首次写入时设置的过期时间，单位秒
+     * @return 与配额键一一对应的累加后的总用量
+     */
+    List<Long> incrementQuotas(List<String> keys, List<Long> deltas, long ttlSeconds);
+
+    /**
+     * 后端调用是否会阻塞当前线程。
+     * <p>
+     * 响应式切面据此决定是否把调用切换到弹性线程池，避免阻塞事件循环线程。
+     * </p>
+     *
+     * @return 会阻塞时返回 true，默认返回 true
+     */
+    default boolean isBlocking() {
+        return true;
+    }
+
+}
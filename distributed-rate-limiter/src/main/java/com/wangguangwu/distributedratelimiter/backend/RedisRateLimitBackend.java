@@ -0,0 +1,138 @@
+package com.wangguangwu.distributedratelimiter.backend;
+
+import com.wangguangwu.distributedratelimiter.enums.TrafficPriority;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于 Redis + Lua 脚本的限流后端。
+ * <p>
+ * 计数与过期在 Lua 脚本中原子完成，多个节点共享同一份计数，实现分布式限流。
+ * 启动时读取所有脚本并计算 SHA1，脚本缺失时启动失败；开启 {@code rate-limiter.redis.preload-scripts} 后，
+ * 还会通过 {@code SCRIPT LOAD} 把脚本预先加载到 Redis，脚本有语法错误或 Redis 不可用时启动失败，
+ * 第一次请求也不会因为 {@code NOSCRIPT} 而多一次往返。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "rate-limiter", name = "backend", havingValue = "redis", matchIfMissing = true)
+public class RedisRateLimitBackend implements RateLimitBackend {
+
+    private static final String LIMIT_LUA_PATH = "limit.lua";
+
+    private static final String LIMIT_PRIORITY_LUA_PATH = "limit_priority.lua";
+
+    private static final String LEAKY_BUCKET_LUA_PATH = "leaky_bucket.lua";
+
+    private static final String QUOTA_LUA_PATH = "quota.lua";
+
+    @Resource
+    private RedisTemplate<String, Serializable> limitRedisTemplate;
+
+    @Value("${rate-limiter.redis.preload-scripts:false}")
+    private boolean preloadScripts;
+
+    private DefaultRedisScript<Long> redisScript;
+
+    private DefaultRedisScript<Long> priorityRedisScript;
+
+    private DefaultRedisScript<Long> leakyBucketRedisScript;
+
+    @SuppressWarnings("rawtypes")
+    private DefaultRedisScript<List> quotaRedisScript;
+
+    /**
+     * 初始化方法，在 Bean 创建时加载并校验 Lua 脚本。
+     */
+    @PostConstruct
+    public void init() {
+        redisScript = loadScript(LIMIT_LUA_PATH);
+        priorityRedisScript = loadScript(LIMIT_PRIORITY_LUA_PATH);
+        leakyBucketRedisScript = loadScript(LEAKY_BUCKET_LUA_PATH);
+        quotaRedisScript = new DefaultRedisScript<>();
+        quotaRedisScript.setResultType(List.class);
+        quotaRedisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(QUOTA_LUA_PATH)));
+        for (DefaultRedisScript<?> script : List.of(redisScript, priorityRedisScript, leakyBucketRedisScript, quotaRedisScript)) {
+            verify(script);
+        }
+    }
+
+    /**
+     * 计算脚本的 SHA1，开启预加载时把脚本加载到 Redis 并核对 Redis 返回的 SHA1。
+     */
+    private void verify(DefaultRedisScript<?> script) {
+        String sha1 = script.getSha1();
+        if (!preloadScripts) {
+            return;
+        }
+        byte[] source = script.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        String loaded = limitRedisTemplate.execute(
+                (RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(source));
+        if (!sha1.equals(loaded)) {
+            throw new IllegalStateException("Lua 脚本预加载失败，期望 SHA1 " + sha1 + "，实际为 " + loaded);
+        }
+        log.info("Lua 脚本已预加载: {}", sha1);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int count, int period) {
+        Long result = limitRedisTemplate.execute(redisScript, Collections.singletonList(key), count, period);
+        return result != null && result == 1;
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int count, int period, TrafficPriority priority,
+                              int criticalReserved, int normalReserved) {
+        Long result = limitRedisTemplate.execute(priorityRedisScript,
+                Arrays.asList(key + ":priority", key + ":active"),
+                count, period, priority.ordinal(), criticalReserved, normalReserved);
+        return result != null && result == 1;
+    }
+
+    @Override
+    public long reserve(String key, int count, int period, long maxDelayMillis) {
+        double intervalMillis = period * 1000.0 / count;
+        Long result = limitRedisTemplate.execute(leakyBucketRedisScript,
+                Collections.singletonList(key + ":leaky"), intervalMillis, maxDelayMillis);
+        return result == null ? -1 : result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> incrementQuotas(List<String> keys, List<Long> deltas, long ttlSeconds) {
+        Object[] args = new Object[deltas.size() + 1];
+        args[0] = ttlSeconds;
+        for (int i = 0; i < deltas.size(); i++) {
+            args[i + 1] = deltas.get(i);
+        }
+        List<Long> totals = limitRedisTemplate.execute(quotaRedisScript, keys, args);
+        if (totals == null || totals.size() != keys.size()) {
+            throw new IllegalStateException("配额写回结果不完整");
+        }
+        return totals;
+    }
+
+    private static DefaultRedisScript<Long> loadScript(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setResultType(Long.class);
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        return script;
+    }
+}
@@ -0,0 +1,53 @@
+package com.wangguangwu.distributedratelimiter.config;
+
+import com.wangguangwu.distributedratelimiter.backend.RateLimitBackend;
+import com.wangguangwu.distributedratelimiter.filter.RateLimitFilter;
+import com.wangguangwu.distributedratelimiter.ipfilter.ClientIpResolver;
+import com.wangguangwu.distributedratelimiter.ipfilter.IpAccessList;
+import com.wangguangwu.distributedratelimiter.validation.RateLimiterDefinitionValidator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 过滤器级别限流的配置类。
+ * <p>
+ * 通过 {@code rate-limiter.filter.enabled=true} 开启，将 {@link RateLimitFilter} 以最高优先级注册到过滤器链中。
+ * </p>
+ *
+ * @author wangguangwu
+ * @see RateLimitFilterProperties
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitFilterProperties.class)
+@ConditionalOnProperty(prefix = "rate-limiter.filter", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RateLimitFilterConfig {
+
+    /**
+     * 注册限流过滤器，排在其他过滤器之前执行。
+     *
+     * @param rateLimitBackend 限流存储后端
+     * @param properties       过滤器限流配置
+     * @param ipAccessList     IP 黑白名单
+     * @param clientIpResolver 客户端 IP 解析器
+     * @return 过滤器注册对象
+     * @throws IllegalStateException 存在不合法的限流规则
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitBackend rateLimitBackend,
+                                                                   RateLimitFilterProperties properties,
+                                                                   IpAccessList ipAccessList,
+                                                                   ClientIpResolver clientIpResolver) {
+        RateLimiterDefinitionValidator.validateRules(properties.getRules());
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(rateLimitBackend, properties, ipAccessList, clientIpResolver));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,77 @@
+package com.wangguangwu.distributedratelimiter.config;
+
+import com.wangguangwu.distributedratelimiter.enums.LimitType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 过滤器级别限流的配置。
+ * <p>
+ * 按 URL 模式配置限流规则，在请求进入 Spring MVC 之前完成限流判定。
+ * </p>
+ *
+ * <pre>
+ * rate-limiter.filter.enabled=true
+ * rate-limiter.filter.rules[0].pattern=/api/**
+ * rate-limiter.filter.rules[0].key=api
+ * rate-limiter.filter.rules[0].count=100
+ * rate-limiter.filter.rules[0].period=1
+ * rate-limiter.filter.rules[0].limit-type=IP
+ * </pre>
+ *
+ * @author wangguangwu
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limiter.filter")
+public class RateLimitFilterProperties {
+
+    /**
+     * 是否启用过滤器级别的限流，默认不启用
+     */
+    private boolean enabled = false;
+
+    /**
+     * 限流键的前缀
+     */
+    private String prefix = "limiter:filter:";
+
+    /**
+     * 限流规则，按顺序匹配，只应用第一条匹配的规则
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    /**
+     * 单条限流规则。
+     */
+    @Data
+    public static class Rule {
+
+        /**
+         * URL 模式，例如 /api/**
+         */
+        private String pattern;
+
+        /**
+         * 限流的唯一标识 key
+         */
+        private String key;
+
+        /**
+         * 限流的时间范围，单位秒
+         */
+        private int period = 1;
+
+        /**
+         * 时间范围内允许的最大访问次数
+         */
+        private int count = 3;
+
+        /**
+         * 限流的维度
+         */
+        private LimitType limitType = LimitType.CUSTOMER;
+    }
+}
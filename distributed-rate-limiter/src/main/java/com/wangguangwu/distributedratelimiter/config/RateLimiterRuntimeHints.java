@@ -0,0 +1,24 @@
+package com.wangguangwu.distributedratelimiter.config;
+
+import com.wangguangwu.distributedratelimiter.annotation.DistributedRateLimiter;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * 限流相关的 AOT 运行时提示。
+ * <p>
+ * Lua 脚本在启动时从类路径读取，限流注解的属性在运行时通过反射读取，
+ * 构建 GraalVM 原生镜像时需要把脚本打包进镜像，并保留注解的元数据。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class RateLimiterRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern("*.lua");
+        hints.reflection().registerType(DistributedRateLimiter.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
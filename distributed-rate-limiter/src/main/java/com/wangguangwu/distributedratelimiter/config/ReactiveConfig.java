@@ -0,0 +1,30 @@
+package com.wangguangwu.distributedratelimiter.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+
+/**
+ * WebFlux 配置类。
+ * <p>
+ * 注册 {@link ServerWebExchangeContextFilter}，将当前的 {@code ServerWebExchange} 写入 Reactor 上下文，
+ * 以便响应式限流切面在不依赖 ThreadLocal 的情况下解析 IP、优先级等信息。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * 将 ServerWebExchange 写入 Reactor 上下文的过滤器。
+     *
+     * @return ServerWebExchangeContextFilter 实例
+     */
+    @Bean
+    public ServerWebExchangeContextFilter serverWebExchangeContextFilter() {
+        return new ServerWebExchangeContextFilter();
+    }
+}
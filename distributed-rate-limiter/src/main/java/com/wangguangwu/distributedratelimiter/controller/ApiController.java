@@ -1,10 +1,15 @@
 package com.wangguangwu.distributedratelimiter.controller;
 
 import com.wangguangwu.distributedratelimiter.annotation.DistributedRateLimiter;
+import com.wangguangwu.distributedratelimiter.enums.LimitMode;
+import com.wangguangwu.distributedratelimiter.enums.LimitStrategy;
+import com.wangguangwu.distributedratelimiter.enums.QuotaPeriod;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @author wangguangwu
  */
@@ -17,4 +22,22 @@ public class ApiController {
     public String action() {
         return "success";
     }
+
+    @GetMapping("/plan")
+    @DistributedRateLimiter(key = "plan", count = 10, quota = 100000, quotaPeriod = QuotaPeriod.MONTH)
+    public String plan() {
+        return "success";
+    }
+
+    @GetMapping("/shadow")
+    @DistributedRateLimiter(key = "shadow", count = 1, mode = LimitMode.SHADOW)
+    public String shadow() {
+        return "success";
+    }
+
+    @GetMapping("/queued")
+    @DistributedRateLimiter(key = "queued", count = 10, strategy = LimitStrategy.LEAKY_BUCKET, maxQueueDelay = 2000)
+    public CompletableFuture<String> queued() {
+        return CompletableFuture.completedFuture("success");
+    }
 }
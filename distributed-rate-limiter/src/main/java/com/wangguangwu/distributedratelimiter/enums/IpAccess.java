@@ -0,0 +1,32 @@
+package com.wangguangwu.distributedratelimiter.enums;
+
+/**
+ * 枚举类，表示 IP 黑白名单的判定结果。
+ *
+ * <p>例如：</p>
+ * <ul>
+ *     <li>{@link #ALLOW} - 命中白名单，跳过限流直接放行。</li>
+ *     <li>{@link #BLOCK} - 命中黑名单，不经过限流直接拒绝。</li>
+ *     <li>{@link #NONE} - 未命中任何名单，按限流规则处理。</li>
+ * </ul>
+ *
+ * @author wangguangwu
+ */
+public enum IpAccess {
+
+    /**
+     * 命中白名单，跳过限流直接放行。
+     */
+    ALLOW,
+
+    /**
+     * 命中黑名单，不经过限流直接拒绝。
+     */
+    BLOCK,
+
+    /**
+     * 未命中任何名单，按限流规则处理。
+     */
+    NONE
+
+}
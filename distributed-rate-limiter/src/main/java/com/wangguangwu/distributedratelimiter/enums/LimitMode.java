@@ -0,0 +1,26 @@
+package com.wangguangwu.distributedratelimiter.enums;
+
+/**
+ * 枚举类，表示限流规则的生效方式。
+ *
+ * <p>例如：</p>
+ * <ul>
+ *     <li>{@link #ENFORCE} - 按限流结果放行或拒绝请求。</li>
+ *     <li>{@link #SHADOW} - 只计算并记录限流结果，始终放行请求，用于评估新的限流值。</li>
+ * </ul>
+ *
+ * @author wangguangwu
+ */
+public enum LimitMode {
+
+    /**
+     * 按限流结果放行或拒绝请求。
+     */
+    ENFORCE,
+
+    /**
+     * 只计算并记录限流结果，始终放行请求，用于评估新的限流值。
+     */
+    SHADOW
+
+}
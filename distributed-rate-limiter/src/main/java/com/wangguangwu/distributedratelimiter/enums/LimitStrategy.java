@@ -0,0 +1,26 @@
+package com.wangguangwu.distributedratelimiter.enums;
+
+/**
+ * 枚举类，表示限流策略。
+ *
+ * <p>例如：</p>
+ * <ul>
+ *     <li>{@link #FIXED_WINDOW} - 固定窗口计数，超过上限的请求立即被拒绝。</li>
+ *     <li>{@link #LEAKY_BUCKET} - 漏桶排队，请求按固定间隔依次执行，排队时间超过上限才被拒绝。</li>
+ * </ul>
+ *
+ * @author wangguangwu
+ */
+public enum LimitStrategy {
+
+    /**
+     * 固定窗口计数，超过上限的请求立即被拒绝。
+     */
+    FIXED_WINDOW,
+
+    /**
+     * 漏桶排队，请求按固定间隔依次执行，排队时间超过上限才被拒绝。
+     */
+    LEAKY_BUCKET
+
+}
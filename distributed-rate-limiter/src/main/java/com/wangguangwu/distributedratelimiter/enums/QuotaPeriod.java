@@ -0,0 +1,58 @@
+package com.wangguangwu.distributedratelimiter.enums;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 枚举类，表示长周期配额的统计周期。
+ *
+ * <p>例如：</p>
+ * <ul>
+ *     <li>{@link #DAY} - 按自然日统计配额。</li>
+ *     <li>{@link #MONTH} - 按自然月统计配额。</li>
+ * </ul>
+ *
+ * @author wangguangwu
+ */
+public enum QuotaPeriod {
+
+    /**
+     * 按自然日统计配额。
+     */
+    DAY(DateTimeFormatter.ofPattern("yyyyMMdd"), Duration.ofDays(2)),
+
+    /**
+     * 按自然月统计配额。
+     */
+    MONTH(DateTimeFormatter.ofPattern("yyyyMM"), Duration.ofDays(32));
+
+    private final DateTimeFormatter formatter;
+
+    private final Duration ttl;
+
+    QuotaPeriod(DateTimeFormatter formatter, Duration ttl) {
+        this.formatter = formatter;
+        this.ttl = ttl;
+    }
+
+    /**
+     * 指定日期所在周期的标识，拼接在配额键之后，周期切换时自然使用新的计数。
+     *
+     * @param date 日期
+     * @return 周期标识，例如 {@code 20240801} 或 {@code 202408}
+     */
+    public String suffix(LocalDate date) {
+        return date.format(formatter);
+    }
+
+    /**
+     * 配额计数的保留时间，比一个周期略长，周期结束后由存储自动清理。
+     *
+     * @return 保留时间
+     */
+    public Duration ttl() {
+        return ttl;
+    }
+
+}
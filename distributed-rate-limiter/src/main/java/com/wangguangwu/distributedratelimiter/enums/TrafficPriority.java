@@ -0,0 +1,36 @@
+package com.wangguangwu.distributedratelimiter.enums;
+
+/**
+ * 枚举类，表示请求的优先级。
+ * <p>
+ * 限流时为高优先级的请求预留一部分容量，低优先级的请求只能使用剩余的容量。
+ * 当高优先级的请求空闲时，低优先级的请求可以借用其预留的容量。
+ * </p>
+ *
+ * <p>例如：</p>
+ * <ul>
+ *     <li>{@link #CRITICAL} - 付费用户、内部调用等关键流量。</li>
+ *     <li>{@link #NORMAL} - 普通流量。</li>
+ *     <li>{@link #BEST_EFFORT} - 匿名、爬虫等可被优先舍弃的流量。</li>
+ * </ul>
+ *
+ * @author wangguangwu
+ */
+public enum TrafficPriority {
+
+    /**
+     * 关键流量，可以使用全部容量。
+     */
+    CRITICAL,
+
+    /**
+     * 普通流量，不能占用为关键流量预留的容量。
+     */
+    NORMAL,
+
+    /**
+     * 尽力而为的流量，不能占用为关键流量和普通流量预留的容量。
+     */
+    BEST_EFFORT
+
+}
@@ -0,0 +1,134 @@
+package com.wangguangwu.distributedratelimiter.filter;
+
+import com.wangguangwu.distributedratelimiter.backend.RateLimitBackend;
+import com.wangguangwu.distributedratelimiter.config.RateLimitFilterProperties;
+import com.wangguangwu.distributedratelimiter.enums.IpAccess;
+import com.wangguangwu.distributedratelimiter.enums.LimitType;
+import com.wangguangwu.distributedratelimiter.ipfilter.ClientIpResolver;
+import com.wangguangwu.distributedratelimiter.ipfilter.IpAccessList;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * 过滤器级别的限流。
+ * <p>
+ * 在请求进入 {@code DispatcherServlet} 之前按 URL 模式匹配限流规则，
+ * 被拒绝的请求不会经过处理器映射、拦截器和参数解析，在流量洪峰时可以显著降低拒绝请求的开销。
+ * 限流判定与 {@link com.wangguangwu.distributedratelimiter.annotation.DistributedRateLimiter} 共用同一个
+ * {@link RateLimitBackend}。
+ * 匹配到规则的请求先查询 {@link IpAccessList}，命中白名单时直接放行，命中黑名单时返回 403，都不会访问限流后端。
+ * 客户端 IP 由 {@link ClientIpResolver} 解析，只采信可信代理转发的 {@code x-forwarded-for}。
+ * </p>
+ *
+ * @author wangguangwu
+ * @see RateLimitFilterProperties
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitBackend rateLimitBackend;
+
+    private final String prefix;
+
+    private final List<CompiledRule> rules;
+
+    private final IpAccessList ipAccessList;
+
+    private final ClientIpResolver clientIpResolver;
+
+    public RateLimitFilter(RateLimitBackend rateLimitBackend, RateLimitFilterProperties properties,
+                           IpAccessList ipAccessList, ClientIpResolver clientIpResolver) {
+        this.rateLimitBackend = rateLimitBackend;
+        this.ipAccessList = ipAccessList;
+        this.clientIpResolver = clientIpResolver;
+        this.prefix = properties.getPrefix();
+        // 启动时预先解析 URL 模式，请求时只做匹配
+        this.rules = properties.getRules().stream()
+                .map(rule -> new CompiledRule(PathPatternParser.defaultInstance.parse(rule.getPattern()), rule))
+                .toList();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RateLimitFilterProperties.Rule rule = match(request);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // 名单为空且不按 IP 限流时不需要解析 IP
+        String ip = rule.getLimitType() == LimitType.IP || !ipAccessList.isEmpty()
+                ? clientIpResolver.resolve(request) : null;
+        IpAccess access = ipAccessList.check(ip);
+        if (access == IpAccess.ALLOW || access == IpAccess.NONE && tryAcquire(rule, ip)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        reject(response, access == IpAccess.BLOCK ? HttpStatus.FORBIDDEN : HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private RateLimitFilterProperties.Rule match(HttpServletRequest request) {
+        if (rules.isEmpty()) {
+            return null;
+        }
+        PathContainer path = ServletRequestPathUtils.hasParsedRequestPath(request)
+                ? ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication()
+                : PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (CompiledRule compiledRule : rules) {
+            if (compiledRule.pattern().matches(path)) {
+                return compiledRule.rule();
+            }
+        }
+        return null;
+    }
+
+    private boolean tryAcquire(RateLimitFilterProperties.Rule rule, String ip) {
+        String key = rule.getKey();
+        if (rule.getLimitType() == LimitType.IP) {
+            // 无法解析 IP 的请求不能共用同一个限流键，否则会互相挤占配额，直接拒绝
+            if (StringUtils.isBlank(ip)) {
+                log.warn("无法解析客户端 IP，按 IP 限流的请求被拒绝");
+                return false;
+            }
+            key = StringUtils.join(key, ":", ip);
+        }
+        try {
+            return rateLimitBackend.tryAcquire(StringUtils.join(prefix, key), rule.getCount(), rule.getPeriod());
+        } catch (Exception e) {
+            log.error("限流发生异常，走降级处理: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 拒绝请求，限流时返回 429 状态码，命中黑名单时返回 403 状态码，并输出降级提示。
+     */
+    private void reject(HttpServletResponse response, HttpStatus status) {
+        response.setStatus(status.value());
+        response.setHeader("Content-type", "text/html;charset=UTF-8");
+        try (PrintWriter writer = response.getWriter()) {
+            writer.println("服务出错，请稍后重试");
+            writer.flush();
+        } catch (IOException e) {
+            log.error("服务降级: {}", e.getMessage(), e);
+        }
+    }
+
+    private record CompiledRule(PathPattern pattern, RateLimitFilterProperties.Rule rule) {
+    }
+}
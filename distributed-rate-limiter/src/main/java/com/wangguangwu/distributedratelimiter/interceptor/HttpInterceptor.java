@@ -7,6 +7,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 /**
@@ -22,7 +23,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
  * @see HandlerInterceptor
  */
 @Component
-public class HttpInterceptor implements HandlerInterceptor {
+public class HttpInterceptor implements AsyncHandlerInterceptor {
 
     /**
      * 在请求处理之前调用。用于将当前请求和响应对象与当前线程绑定。
@@ -54,4 +55,17 @@ public class HttpInterceptor implements HandlerInterceptor {
         RequestContext.removeRequest();
         ResponseContext.removeResponse();
     }
+
+    /**
+     * 异步请求开始后调用，此时 {@link #afterCompletion} 不会在当前线程执行，需要在这里清理上下文。
+     *
+     * @param request  当前的 HTTP 请求
+     * @param response 当前的 HTTP 响应
+     * @param handler  处理器（或 {@link HandlerMethod}），用于处理当前请求
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        RequestContext.removeRequest();
+        ResponseContext.removeResponse();
+    }
 }
@@ -0,0 +1,109 @@
+package com.wangguangwu.distributedratelimiter.ipfilter;
+
+import com.wangguangwu.distributedratelimiter.context.RequestContext;
+import com.wangguangwu.distributedratelimiter.enums.IpAccess;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 解析客户端 IP 地址，供 IP 黑白名单与按 IP 限流使用。
+ * <p>
+ * {@code x-forwarded-for} 请求头由客户端任意填写，不能直接信任，否则伪造一个白名单地址即可绕过限流，伪造其他地址即可绕过黑名单。
+ * 这里以 TCP 连接的对端地址为准，只有对端属于 {@code rate-limiter.trusted-proxies} 配置的可信代理时，
+ * 才从右向左读取 {@code x-forwarded-for}，取第一个不属于可信代理的地址，即最外层可信代理看到的对端地址；
+ * 更左侧的地址仍可能由客户端伪造，不予采用。未配置可信代理时始终使用对端地址。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Component
+public class ClientIpResolver {
+
+    private static final String FORWARDED_FOR = "x-forwarded-for";
+
+    @Value("${rate-limiter.trusted-proxies:}")
+    private List<String> trustedProxies;
+
+    private IpRangeIndex trusted = IpRangeIndex.EMPTY;
+
+    /**
+     * 构建可信代理的地址索引，配置格式错误时启动失败。
+     */
+    @PostConstruct
+    public void init() {
+        trusted = IpRangeIndex.allowing(trustedProxies);
+    }
+
+    /**
+     * 获取当前请求的客户端 IP 地址。
+     *
+     * @return 客户端的 IP 地址，不在请求上下文中时返回 null
+     */
+    public String resolve() {
+        // 从 ThreadLocal 中获取当前 HTTP 请求对象
+        HttpServletRequest request = RequestContext.getRequest();
+        return request == null ? null : resolve(request);
+    }
+
+    /**
+     * 获取指定请求的客户端 IP 地址。
+     * <p>
+     * 用于过滤器等尚未将请求绑定到 {@link RequestContext} 的场景。
+     * </p>
+     *
+     * @param request HTTP 请求
+     * @return 客户端的 IP 地址
+     */
+    public String resolve(HttpServletRequest request) {
+        return resolve(request.getRemoteAddr(), request.getHeader(FORWARDED_FOR));
+    }
+
+    /**
+     * 获取响应式请求的客户端 IP 地址，规则与 {@link #resolve(HttpServletRequest)} 一致。
+     *
+     * @param request 响应式 HTTP 请求
+     * @return 客户端的 IP 地址，无法获取对端地址时返回 null
+     */
+    public String resolve(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String peer = remoteAddress == null || remoteAddress.getAddress() == null
+                ? null : remoteAddress.getAddress().getHostAddress();
+        return resolve(peer, request.getHeaders().getFirst(FORWARDED_FOR));
+    }
+
+    /**
+     * 根据对端地址与 {@code x-forwarded-for} 解析客户端地址。
+     *
+     * @param peer         TCP 连接的对端地址
+     * @param forwardedFor {@code x-forwarded-for} 请求头，可以为 null
+     * @return 客户端的 IP 地址
+     */
+    String resolve(String peer, String forwardedFor) {
+        if (peer == null || StringUtils.isBlank(forwardedFor) || !isTrusted(peer)) {
+            return peer;
+        }
+        List<String> hops = Arrays.stream(forwardedFor.split(","))
+                .map(String::trim)
+                .filter(StringUtils::isNotEmpty)
+                .toList();
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            if (!isTrusted(hops.get(i))) {
+                return hops.get(i);
+            }
+        }
+        // 转发链上全部是可信代理，请求来自内部
+        return hops.isEmpty() ? peer : hops.get(0);
+    }
+
+    private boolean isTrusted(String ip) {
+        return trusted.lookup(ip) == IpAccess.ALLOW;
+    }
+}
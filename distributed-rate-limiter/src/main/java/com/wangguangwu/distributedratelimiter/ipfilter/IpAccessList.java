@@ -0,0 +1,118 @@
+package com.wangguangwu.distributedratelimiter.ipfilter;
+
+import com.wangguangwu.distributedratelimiter.enums.IpAccess;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IP 黑白名单，在限流判定之前生效。
+ * <p>
+ * 命中白名单的请求跳过限流，命中黑名单的请求直接拒绝，两者都不会访问限流后端。
+ * 名单从 {@code rate-limiter.ip-access.path} 指定的文件加载，后台线程按
+ * {@code rate-limiter.ip-access.reload-interval-ms} 检查文件的修改时间，变化时重新构建 {@link IpRangeIndex} 并整体替换，
+ * 请求线程只读取不可变的索引，不需要加锁。未配置文件时名单为空，调用方可以据此跳过 IP 解析。
+ * </p>
+ * <p>
+ * 启动时名单格式错误会导致启动失败；运行期间重新加载失败时保留原有的名单。
+ * </p>
+ *
+ * @author wangguangwu
+ * @see IpRangeIndex
+ */
+@Slf4j
+@Component
+public class IpAccessList {
+
+    @Value("${rate-limiter.ip-access.path:}")
+    private String path;
+
+    @Value("${rate-limiter.ip-access.reload-interval-ms:5000}")
+    private long reloadIntervalMillis;
+
+    private volatile IpRangeIndex index = IpRangeIndex.EMPTY;
+
+    private FileTime lastModified;
+
+    private ScheduledExecutorService reloader;
+
+    /**
+     * 加载名单，并启动后台重新加载线程。
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (StringUtils.isBlank(path)) {
+            return;
+        }
+        load(Path.of(path));
+        reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limiter-ip-access-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(this::reload, reloadIntervalMillis, reloadIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止后台重新加载线程。
+     */
+    @PreDestroy
+    public void destroy() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * 查询 IP 地址命中的名单。
+     *
+     * @param ip IP 地址，可以为 null
+     * @return 判定结果
+     */
+    public IpAccess check(String ip) {
+        return index.lookup(ip);
+    }
+
+    /**
+     * 名单是否为空。
+     *
+     * @return 为空时返回 true
+     */
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /**
+     * 文件的修改时间变化时重新加载名单，失败时保留原有的名单。
+     */
+    void reload() {
+        Path file = Path.of(path);
+        try {
+            if (!Files.getLastModifiedTime(file).equals(lastModified)) {
+                load(file);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("重新加载 IP 名单失败，继续使用原有的名单: {}", e.getMessage());
+        }
+    }
+
+    private void load(Path file) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        IpRangeIndex loaded = IpRangeIndex.parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+        index = loaded;
+        lastModified = modified;
+        log.info("IP 名单已加载: {}，共 {} 个区间", file, loaded.size());
+    }
+}
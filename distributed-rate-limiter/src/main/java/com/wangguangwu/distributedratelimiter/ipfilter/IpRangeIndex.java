@@ -0,0 +1,493 @@
+package com.wangguangwu.distributedratelimiter.ipfilter;
+
+import com.wangguangwu.distributedratelimiter.enums.IpAccess;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 不可变的 IP 黑白名单索引。
+ * <p>
+ * 名单中的 CIDR 在构建时被展开为互不重叠、按起始地址排序的区间，查询时只做一次二分查找。
+ * IPv4 区间以 {@code long} 数组保存，并按地址的高 16 位建立一级索引，二分查找只在同一个 /16 内的少数区间中进行，
+ * 一级索引约占 256 KB，只在存在 IPv4 区间时分配，空索引与只有少量 IPv6 地址的可信代理等索引不占用这部分内存；
+ * IPv6 区间以高低两个 {@code long} 保存。查询 IPv4 地址时不创建任何对象。
+ * 多个 CIDR 相互包含时，前缀最长（范围最小）的规则生效；范围完全相同时黑名单优先。
+ * </p>
+ * <p>
+ * 名单每行一条规则，格式为 {@code allow|block <IP 或 CIDR>}，{@code #} 之后的内容为注释，例如：
+ * </p>
+ * <pre>
+ * # 内网流量不限流
+ * allow 10.0.0.0/8
+ * block 10.1.2.0/24
+ * block 2001:db8::/32
+ * </pre>
+ *
+ * @author wangguangwu
+ * @see IpAccessList
+ */
+public final class IpRangeIndex {
+
+    /**
+     * 不包含任何规则的索引
+     */
+    public static final IpRangeIndex EMPTY = new IpRangeIndex(List.of(), List.of());
+
+    private static final IpAccess[] ACCESSES = IpAccess.values();
+
+    private static final int IPV4_BITS = 32;
+
+    private static final int IPV6_BITS = 128;
+
+    /**
+     * IPv4 一级索引使用的地址位数
+     */
+    private static final int V4_BUCKET_SHIFT = 16;
+
+    private final long[] v4Starts;
+
+    private final long[] v4Ends;
+
+    private final byte[] v4Accesses;
+
+    /**
+     * 第 i 项为起始地址不小于 {@code i << 16} 的第一个 IPv4 区间的下标，没有 IPv4 区间时为 null
+     */
+    private final int[] v4Buckets;
+
+    private final long[] v6StartHis;
+
+    private final long[] v6StartLos;
+
+    private final long[] v6EndHis;
+
+    private final long[] v6EndLos;
+
+    private final byte[] v6Accesses;
+
+    private IpRangeIndex(List<Segment> v4, List<Segment> v6) {
+        v4Starts = new long[v4.size()];
+        v4Ends = new long[v4.size()];
+        v4Accesses = new byte[v4.size()];
+        for (int i = 0; i < v4.size(); i++) {
+            Segment segment = v4.get(i);
+            v4Starts[i] = segment.start.longValue();
+            v4Ends[i] = segment.end.longValue();
+            v4Accesses[i] = (byte) segment.access.ordinal();
+        }
+        v4Buckets = v4.isEmpty() ? null : buildBuckets(v4Starts);
+        v6StartHis = new long[v6.size()];
+        v6StartLos = new long[v6.size()];
+        v6EndHis = new long[v6.size()];
+        v6EndLos = new long[v6.size()];
+        v6Accesses = new byte[v6.size()];
+        for (int i = 0; i < v6.size(); i++) {
+            Segment segment = v6.get(i);
+            v6StartHis[i] = segment.start.shiftRight(64).longValue();
+            v6StartLos[i] = segment.start.longValue();
+            v6EndHis[i] = segment.end.shiftRight(64).longValue();
+            v6EndLos[i] = segment.end.longValue();
+            v6Accesses[i] = (byte) segment.access.ordinal();
+        }
+    }
+
+    /**
+     * 构建所有地址都标记为白名单的索引，用于可信代理等地址集合。
+     *
+     * @param addresses IP 或 CIDR，忽略空白项
+     * @return 索引
+     * @throws IllegalArgumentException 存在格式错误的地址
+     */
+    public static IpRangeIndex allowing(List<String> addresses) {
+        return parse(addresses.stream()
+                .filter(address -> !address.isBlank())
+                .map(address -> "allow " + address.trim())
+                .toList());
+    }
+
+    /**
+     * 解析名单内容并构建索引。
+     *
+     * @param lines 名单的每一行
+     * @return 索引
+     * @throws IllegalArgumentException 名单中存在格式错误的行
+     */
+    public static IpRangeIndex parse(List<String> lines) {
+        List<Rule> v4 = new ArrayList<>();
+        List<Rule> v6 = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            IpAccess access = parts.length != 2 ? null : switch (parts[0].toLowerCase(Locale.ROOT)) {
+                case "allow" -> IpAccess.ALLOW;
+                case "block" -> IpAccess.BLOCK;
+                default -> null;
+            };
+            Rule rule = access == null ? null : parseRule(parts[1], access);
+            if (rule == null) {
+                throw new IllegalArgumentException("IP 名单第 " + (i + 1) + " 行格式错误: " + lines.get(i));
+            }
+            (rule.bits == IPV4_BITS ? v4 : v6).add(rule);
+        }
+        return new IpRangeIndex(flatten(v4), flatten(v6));
+    }
+
+    /**
+     * 查询 IP 地址命中的名单。
+     * <p>
+     * 只接受单个地址，{@code x-forwarded-for} 等请求头应当先经过 {@link ClientIpResolver} 解析。无法解析的地址视为未命中。
+     * </p>
+     *
+     * @param ip IP 地址
+     * @return 判定结果
+     */
+    public IpAccess lookup(String ip) {
+        if (ip == null || isEmpty()) {
+            return IpAccess.NONE;
+        }
+        long v4 = parseIpv4(ip, 0, ip.length());
+        if (v4 >= 0) {
+            return lookupV4(v4);
+        }
+        if (ip.indexOf(':') < 0) {
+            return IpAccess.NONE;
+        }
+        byte[] address = parseIpv6(ip);
+        if (address == null) {
+            return IpAccess.NONE;
+        }
+        if (address.length == 4) {
+            return lookupV4(toLong(address, 0, 4));
+        }
+        return lookupV6(toLong(address, 0, 8), toLong(address, 8, 16));
+    }
+
+    /**
+     * 索引中是否没有任何规则。
+     *
+     * @return 没有规则时返回 true
+     */
+    public boolean isEmpty() {
+        return v4Accesses.length == 0 && v6Accesses.length == 0;
+    }
+
+    /**
+     * 展开后的区间数量。
+     *
+     * @return 区间数量
+     */
+    public int size() {
+        return v4Accesses.length + v6Accesses.length;
+    }
+
+    private static int[] buildBuckets(long[] starts) {
+        int[] buckets = new int[(1 << (IPV4_BITS - V4_BUCKET_SHIFT)) + 1];
+        int next = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            while (next < starts.length && starts[next] < (long) bucket << V4_BUCKET_SHIFT) {
+                next++;
+            }
+            buckets[bucket] = next;
+        }
+        return buckets;
+    }
+
+    private IpAccess lookupV4(long address) {
+        if (v4Buckets == null) {
+            return IpAccess.NONE;
+        }
+        int bucket = (int) (address >>> V4_BUCKET_SHIFT);
+        // 覆盖该地址的区间要么从本 /16 内开始，要么是本 /16 之前的最后一个区间
+        int low = Math.max(0, v4Buckets[bucket] - 1);
+        int high = v4Buckets[bucket + 1] - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (v4Starts[mid] <= address) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found >= 0 && address <= v4Ends[found] ? ACCESSES[v4Accesses[found]] : IpAccess.NONE;
+    }
+
+    private IpAccess lookupV6(long hi, long lo) {
+        int low = 0;
+        int high = v6StartHis.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(v6StartHis[mid], v6StartLos[mid], hi, lo) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found >= 0 && compare(hi, lo, v6EndHis[found], v6EndLos[found]) <= 0
+                ? ACCESSES[v6Accesses[found]] : IpAccess.NONE;
+    }
+
+    private static long toLong(byte[] bytes, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value << 8 | (bytes[i] & 0xff);
+        }
+        return value;
+    }
+
+    private static int compare(long hi1, long lo1, long hi2, long lo2) {
+        int result = Long.compareUnsigned(hi1, hi2);
+        return result != 0 ? result : Long.compareUnsigned(lo1, lo2);
+    }
+
+    /**
+     * 解析点分十进制的 IPv4 地址，不创建任何对象。
+     *
+     * @return 地址对应的无符号整数，格式错误时返回 -1
+     */
+    private static long parseIpv4(String ip, int start, int end) {
+        long value = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = start; i < end; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                value = value << 8 | octet;
+                octets++;
+                octet = -1;
+            } else {
+                return -1;
+            }
+        }
+        return octet < 0 || octets != 3 ? -1 : value << 8 | octet;
+    }
+
+    /**
+     * 解析 IPv6 字面量，支持 {@code ::} 压缩、末尾内嵌 IPv4、方括号与 {@code %} 之后的区域标识。
+     * <p>
+     * 手工解析而不使用 {@link java.net.InetAddress#getByName(String)}：后者对部分包含冒号的非法字符串
+     * 会退化为 DNS 查询，请求头中的任意字符串都可能阻塞请求线程甚至事件循环线程。
+     * </p>
+     *
+     * @return 地址的字节，IPv4 映射地址（{@code ::ffff:0:0/96}）返回 4 个字节；格式错误时返回 null
+     */
+    static byte[] parseIpv6(String ip) {
+        int start = 0;
+        int end = ip.length();
+        if (end >= 2 && ip.charAt(0) == '[' && ip.charAt(end - 1) == ']') {
+            start++;
+            end--;
+        }
+        int zone = ip.indexOf('%', start);
+        if (zone >= 0 && zone < end) {
+            end = zone;
+        }
+        if (end - start < 2) {
+            return null;
+        }
+        int[] groups = new int[8];
+        int count = 0;
+        // "::" 之前的分组数，-1 表示没有压缩
+        int compressAt = -1;
+        int i = start;
+        if (ip.charAt(i) == ':') {
+            if (ip.charAt(i + 1) != ':') {
+                return null;
+            }
+            compressAt = 0;
+            i += 2;
+        }
+        while (i < end) {
+            int j = i;
+            int value = 0;
+            while (j < end && j - i < 5 && hex(ip.charAt(j)) >= 0) {
+                value = value << 4 | hex(ip.charAt(j));
+                j++;
+            }
+            if (j < end && ip.charAt(j) == '.') {
+                // 末尾内嵌的 IPv4 地址占两个分组
+                long v4 = count > 6 ? -1 : parseIpv4(ip, i, end);
+                if (v4 < 0) {
+                    return null;
+                }
+                groups[count++] = (int) (v4 >>> 16);
+                groups[count++] = (int) (v4 & 0xffff);
+                break;
+            }
+            if (j == i || j - i > 4 || count == 8) {
+                return null;
+            }
+            groups[count++] = value;
+            if (j == end) {
+                break;
+            }
+            if (ip.charAt(j) != ':' || ++j == end) {
+                return null;
+            }
+            if (ip.charAt(j) == ':') {
+                if (compressAt >= 0) {
+                    return null;
+                }
+                compressAt = count;
+                j++;
+            }
+            i = j;
+        }
+        if (compressAt < 0 ? count != 8 : count > 7) {
+            return null;
+        }
+        byte[] bytes = new byte[16];
+        int tail = compressAt < 0 ? 0 : count - compressAt;
+        for (int g = 0; g < count; g++) {
+            int position = compressAt >= 0 && g >= compressAt ? 8 - tail + (g - compressAt) : g;
+            bytes[position * 2] = (byte) (groups[g] >>> 8);
+            bytes[position * 2 + 1] = (byte) groups[g];
+        }
+        for (int b = 0; b < 10; b++) {
+            if (bytes[b] != 0) {
+                return bytes;
+            }
+        }
+        return bytes[10] == (byte) 0xff && bytes[11] == (byte) 0xff ? Arrays.copyOfRange(bytes, 12, 16) : bytes;
+    }
+
+    private static int hex(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static Rule parseRule(String cidr, IpAccess access) {
+        int slash = cidr.indexOf('/');
+        String host = slash < 0 ? cidr : cidr.substring(0, slash);
+        BigInteger address;
+        int bits;
+        if (host.indexOf(':') >= 0) {
+            byte[] bytes = parseIpv6(host);
+            if (bytes == null) {
+                return null;
+            }
+            address = new BigInteger(1, bytes);
+            bits = bytes.length * 8;
+        } else {
+            long v4 = parseIpv4(host, 0, host.length());
+            if (v4 < 0) {
+                return null;
+            }
+            address = BigInteger.valueOf(v4);
+            bits = IPV4_BITS;
+        }
+        int prefix;
+        try {
+            prefix = slash < 0 ? bits : Integer.parseInt(cidr.substring(slash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (prefix < 0 || prefix > bits) {
+            return null;
+        }
+        BigInteger size = BigInteger.ONE.shiftLeft(bits - prefix);
+        BigInteger start = address.andNot(size.subtract(BigInteger.ONE));
+        return new Rule(start, start.add(size).subtract(BigInteger.ONE), bits, prefix, access);
+    }
+
+    /**
+     * 把相互包含或不相交的 CIDR 展开为互不重叠的区间，被包含的部分由范围更小的规则决定。
+     */
+    private static List<Segment> flatten(List<Rule> rules) {
+        // 起始地址相同时范围大的在前；范围完全相同时黑名单在后，作为更内层的规则生效
+        rules.sort(Comparator.comparing((Rule rule) -> rule.start)
+                .thenComparingInt(rule -> rule.prefix)
+                .thenComparingInt(rule -> rule.access.ordinal()));
+        List<Segment> segments = new ArrayList<>();
+        Deque<Rule> stack = new ArrayDeque<>();
+        BigInteger cursor = BigInteger.ZERO;
+        for (Rule rule : rules) {
+            while (!stack.isEmpty() && stack.peek().end.compareTo(rule.start) < 0) {
+                cursor = emit(segments, stack.pop(), cursor);
+            }
+            if (!stack.isEmpty() && cursor.compareTo(rule.start) < 0) {
+                append(segments, cursor, rule.start.subtract(BigInteger.ONE), stack.peek().access);
+            }
+            stack.push(rule);
+            cursor = rule.start;
+        }
+        while (!stack.isEmpty()) {
+            cursor = emit(segments, stack.pop(), cursor);
+        }
+        return segments;
+    }
+
+    /**
+     * 输出规则尚未被内层规则覆盖的剩余部分，返回下一个未覆盖的地址。
+     */
+    private static BigInteger emit(List<Segment> segments, Rule rule, BigInteger cursor) {
+        if (cursor.compareTo(rule.end) <= 0) {
+            append(segments, cursor, rule.end, rule.access);
+            return rule.end.add(BigInteger.ONE);
+        }
+        return cursor;
+    }
+
+    /**
+     * 追加区间，与前一个区间相邻且判定结果相同时合并。
+     */
+    private static void append(List<Segment> segments, BigInteger start, BigInteger end, IpAccess access) {
+        if (!segments.isEmpty()) {
+            Segment last = segments.get(segments.size() - 1);
+            if (last.access == access && last.end.add(BigInteger.ONE).equals(start)) {
+                last.end = end;
+                return;
+            }
+        }
+        segments.add(new Segment(start, end, access));
+    }
+
+    private record Rule(BigInteger start, BigInteger end, int bits, int prefix, IpAccess access) {
+    }
+
+    private static final class Segment {
+
+        private final BigInteger start;
+
+        private BigInteger end;
+
+        private final IpAccess access;
+
+        private Segment(BigInteger start, BigInteger end, IpAccess access) {
+            this.start = start;
+            this.end = end;
+            this.access = access;
+        }
+    }
+}
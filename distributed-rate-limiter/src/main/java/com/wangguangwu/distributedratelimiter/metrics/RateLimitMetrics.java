@@ -0,0 +1,63 @@
+package com.wangguangwu.distributedratelimiter.metrics;
+
+import com.wangguangwu.distributedratelimiter.enums.LimitMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 限流指标。
+ * <p>
+ * 按限流器、生效方式和结果统计请求数，指标名为 {@code rate.limiter.requests}，
+ * 标签 {@code limiter} 为注解上的 key，{@code mode} 为 enforce 或 shadow，{@code result} 为 admitted 或 rejected。
+ * 影子模式下因队列已满而丢弃的评估计入 {@code rate.limiter.shadow.dropped}。
+ * 可通过 {@code /actuator/metrics/rate.limiter.requests} 查看。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Component
+public class RateLimitMetrics {
+
+    private static final String REQUESTS = "rate.limiter.requests";
+
+    private static final String SHADOW_DROPPED = "rate.limiter.shadow.dropped";
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 已创建的计数器，避免每次记录都重新构建
+     */
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次限流结果。
+     *
+     * @param limiter  限流器名称
+     * @param mode     生效方式
+     * @param admitted 是否放行
+     */
+    public void record(String limiter, LimitMode mode, boolean admitted) {
+        String result = admitted ? "admitted" : "rejected";
+        String id = limiter + '|' + mode + '|' + result;
+        counters.computeIfAbsent(id, k -> Counter.builder(REQUESTS)
+                        .tag("limiter", limiter)
+                        .tag("mode", mode.name().toLowerCase(Locale.ROOT))
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * 记录一次被丢弃的影子评估。
+     */
+    public void recordShadowDropped() {
+        meterRegistry.counter(SHADOW_DROPPED).increment();
+    }
+}
@@ -0,0 +1,90 @@
+package com.wangguangwu.distributedratelimiter.priority;
+
+import com.wangguangwu.distributedratelimiter.context.RequestContext;
+import com.wangguangwu.distributedratelimiter.enums.IpAccess;
+import com.wangguangwu.distributedratelimiter.enums.TrafficPriority;
+import com.wangguangwu.distributedratelimiter.ipfilter.IpRangeIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * 从请求头中解析请求优先级。
+ * <p>
+ * 请求头的值为 {@link TrafficPriority} 的名称（忽略大小写），缺失或无法识别时视为 {@link TrafficPriority#NORMAL}。
+ * 请求头名称通过 {@code rate-limiter.priority.header} 配置。
+ * </p>
+ * <p>
+ * 请求头可以由客户端任意填写，如果直接采信，任何客户端都可以声明为 {@link TrafficPriority#CRITICAL} 占用预留的容量。
+ * 因此只有 TCP 连接的对端属于 {@code rate-limiter.priority.trusted-sources} 配置的地址时才读取请求头，
+ * 这些来源通常是会覆盖该请求头的网关或内部服务；其他请求一律视为 {@link TrafficPriority#NORMAL}。
+ * 未配置可信来源时不读取请求头。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Component
+public class HeaderPriorityResolver implements PriorityResolver {
+
+    @Value("${rate-limiter.priority.header:X-Traffic-Priority}")
+    private String header;
+
+    @Value("${rate-limiter.priority.trusted-sources:}")
+    private List<String> trustedSources;
+
+    private IpRangeIndex trusted = IpRangeIndex.EMPTY;
+
+    /**
+     * 构建可信来源的地址索引，配置格式错误时启动失败。
+     */
+    @PostConstruct
+    public void init() {
+        trusted = IpRangeIndex.allowing(trustedSources);
+    }
+
+    @Override
+    public TrafficPriority resolve() {
+        HttpServletRequest request = RequestContext.getRequest();
+        if (request == null || !isTrusted(request.getRemoteAddr())) {
+            return TrafficPriority.NORMAL;
+        }
+        return parse(request.getHeader(header));
+    }
+
+    @Override
+    public TrafficPriority resolve(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null
+                || !isTrusted(remoteAddress.getAddress().getHostAddress())) {
+            return TrafficPriority.NORMAL;
+        }
+        return parse(exchange.getRequest().getHeaders().getFirst(header));
+    }
+
+    private boolean isTrusted(String peer) {
+        return trusted.lookup(peer) == IpAccess.ALLOW;
+    }
+
+    /**
+     * 将请求头的值解析为优先级。
+     *
+     * @param value 请求头的值
+     * @return 对应的优先级，无法识别时返回 {@link TrafficPriority#NORMAL}
+     */
+    public static TrafficPriority parse(String value) {
+        if (value == null || value.isBlank()) {
+            return TrafficPriority.NORMAL;
+        }
+        for (TrafficPriority priority : TrafficPriority.values()) {
+            if (priority.name().equalsIgnoreCase(value.trim())) {
+                return priority;
+            }
+        }
+        return TrafficPriority.NORMAL;
+    }
+}
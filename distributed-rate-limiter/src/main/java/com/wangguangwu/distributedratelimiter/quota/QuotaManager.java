@@ -0,0 +1,265 @@
+package com.wangguangwu.distributedratelimiter.quota;
+
+import com.wangguangwu.distributedratelimiter.backend.RateLimitBackend;
+import com.wangguangwu.distributedratelimiter.enums.QuotaPeriod;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 长周期配额管理器。
+ * <p>
+ * 每日、每月配额如果每个请求都写一次 Redis，会让限流的 Redis 访问量翻倍。
+ * 这里在本地汇总每个配额键的用量，由后台线程每隔 {@code rate-limiter.quota.flush-interval-ms}
+ * 将增量批量写回 {@link RateLimitBackend}，并取回所有节点累加后的总用量。
+ * 请求的配额判定只读本地状态：{@code 最近一次取回的总用量 + 本地尚未确认的用量 < 配额}。
+ * </p>
+ * <p>
+ * 配额键在本节点首次出现时（包括节点重启后），先同步从后端取回总用量再做判定，避免从 0 开始计数而超用；
+ * 取回失败时从 0 开始，由下一次写回纠正。本地状态一直保留到配额周期结束，
+ * 在一个写回间隔内没有请求的配额键不参与写回，再次出现时沿用上次取回的总用量。
+ * </p>
+ * <p>
+ * 配额周期按 UTC 日期划分，所有节点在同一时刻写入同一个每日、每月配额键，不受各节点时区设置的影响。
+ * 归还配额时使用扣减时的配额键，跨越周期边界的归还不会扣减新周期的用量。
+ * </p>
+ * <p>
+ * 本地判定看不到其他节点在同一个写回间隔内的用量，因此配额最多被超用
+ * {@code 其他节点在一个写回间隔内放行的请求数}；写回失败时增量保留在本地，下次写回时重试。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+@Component
+public class QuotaManager {
+
+    @Resource
+    private RateLimitBackend rateLimitBackend;
+
+    @Value("${rate-limiter.quota.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${rate-limiter.quota.batch-size:500}")
+    private int batchSize;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final Clock clock;
+
+    private ScheduledExecutorService flusher;
+
+    public QuotaManager() {
+        this(Clock.systemUTC());
+    }
+
+    QuotaManager(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 启动后台写回线程。
+     */
+    @PostConstruct
+    public void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limiter-quota-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止后台写回线程，并写回最后一批用量。
+     */
+    @PreDestroy
+    public void destroy() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * 尝试消耗一次配额，不需要归还时使用。
+     *
+     * @param limitKey 限流键（已包含前缀）
+     * @param quota    周期内允许的最大访问次数
+     * @param period   配额周期
+     * @return 配额未用完返回 true
+     * @see #acquire(String, long, QuotaPeriod)
+     */
+    public boolean tryAcquire(String limitKey, long quota, QuotaPeriod period) {
+        return acquire(limitKey, quota, period) != null;
+    }
+
+    /**
+     * 尝试消耗一次配额，只读写本地状态；配额键在本节点首次出现时同步从后端加载总用量。
+     *
+     * @param limitKey 限流键（已包含前缀）
+     * @param quota    周期内允许的最大访问次数
+     * @param period   配额周期
+     * @return 被扣减的配额键，用于 {@link #release(String)}；配额已用完时返回 null
+     */
+    public String acquire(String limitKey, long quota, QuotaPeriod period) {
+        String suffix = period.suffix(LocalDate.now(clock));
+        String quotaKey = quotaKey(limitKey, suffix);
+        Counter counter = counters.get(quotaKey);
+        if (counter == null) {
+            // 在锁外访问后端，并发加载同一个配额键时只保留先放入的一份
+            Counter loaded = load(quotaKey, period, suffix);
+            Counter existing = counters.putIfAbsent(quotaKey, loaded);
+            counter = existing == null ? loaded : existing;
+        }
+        counter.active = true;
+        while (true) {
+            long local = counter.local.get();
+            if (counter.global + local >= quota) {
+                return null;
+            }
+            if (counter.local.compareAndSet(local, local + 1)) {
+                return quotaKey;
+            }
+        }
+    }
+
+    /**
+     * 配额键的总用量是否已经加载到本地，未加载时 {@link #tryAcquire} 需要访问后端。
+     *
+     * @param limitKey 限流键（已包含前缀）
+     * @param period   配额周期
+     * @return 已加载时返回 true
+     */
+    public boolean isLoaded(String limitKey, QuotaPeriod period) {
+        return counters.containsKey(quotaKey(limitKey, period.suffix(LocalDate.now(clock))));
+    }
+
+    /**
+     * 归还一次配额，用于配额判定通过、但后续的短周期限流拒绝了请求的情况。
+     * <p>
+     * 扣减的用量已经写回、且配额周期已经结束时，本地状态已被移除，不再归还。
+     * </p>
+     *
+     * @param quotaKey {@link #acquire(String, long, QuotaPeriod)} 返回的配额键
+     */
+    public void release(String quotaKey) {
+        Counter counter = counters.get(quotaKey);
+        if (counter != null) {
+            counter.local.decrementAndGet();
+        }
+    }
+
+    /**
+     * 从后端取回配额键的总用量，创建本地状态。
+     */
+    private Counter load(String quotaKey, QuotaPeriod period, String suffix) {
+        Counter counter = new Counter(period, suffix);
+        try {
+            counter.global = rateLimitBackend.incrementQuotas(
+                    List.of(quotaKey), List.of(0L), period.ttl().toSeconds()).get(0);
+        } catch (Exception e) {
+            log.warn("加载配额用量失败，从 0 开始计数，等待下次写回纠正: {}", e.getMessage());
+        }
+        return counter;
+    }
+
+    /**
+     * 将本地用量批量写回后端，并刷新总用量；配额周期已经结束的本地状态在用量写回后移除。
+     */
+    void flush() {
+        Map<QuotaPeriod, List<Map.Entry<String, Counter>>> byPeriod = new EnumMap<>(QuotaPeriod.class);
+        LocalDate today = LocalDate.now(clock);
+        counters.forEach((key, counter) -> {
+            boolean pending = counter.local.get() != 0;
+            if (!pending && !counter.period.suffix(today).equals(counter.suffix)) {
+                counters.remove(key, counter);
+                return;
+            }
+            if (!pending && !counter.active) {
+                return;
+            }
+            counter.active = false;
+            byPeriod.computeIfAbsent(counter.period, p -> new ArrayList<>()).add(Map.entry(key, counter));
+        });
+        byPeriod.forEach((period, entries) -> {
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                flushBatch(period, entries.subList(from, Math.min(from + batchSize, entries.size())));
+            }
+        });
+    }
+
+    private void flushBatch(QuotaPeriod period, List<Map.Entry<String, Counter>> batch) {
+        List<String> keys = new ArrayList<>(batch.size());
+        List<Long> deltas = new ArrayList<>(batch.size());
+        for (Map.Entry<String, Counter> entry : batch) {
+            keys.add(entry.getKey());
+            deltas.add(entry.getValue().local.get());
+        }
+        List<Long> totals;
+        try {
+            totals = rateLimitBackend.incrementQuotas(keys, deltas, period.ttl().toSeconds());
+        } catch (Exception e) {
+            log.warn("配额写回失败，{} 个配额键的用量保留在本地: {}", keys.size(), e.getMessage());
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Counter counter = batch.get(i).getValue();
+            // 先更新总用量再扣减本地用量，两步之间只会多算、不会少算
+            counter.global = totals.get(i);
+            counter.local.addAndGet(-deltas.get(i));
+        }
+    }
+
+    private static String quotaKey(String limitKey, String suffix) {
+        return limitKey + ":quota:" + suffix;
+    }
+
+    /**
+     * 单个配额键的本地状态。
+     */
+    private static final class Counter {
+
+        private final QuotaPeriod period;
+
+        /**
+         * 配额周期的后缀，例如 202408
+         */
+        private final String suffix;
+
+        /**
+         * 最近一次从后端取回的所有节点的总用量
+         */
+        private volatile long global;
+
+        /**
+         * 本地放行、尚未被后端确认的用量
+         */
+        private final AtomicLong local = new AtomicLong();
+
+        /**
+         * 上次写回之后是否有过请求
+         */
+        private volatile boolean active;
+
+        private Counter(QuotaPeriod period, String suffix) {
+            this.period = period;
+            this.suffix = suffix;
+        }
+    }
+}
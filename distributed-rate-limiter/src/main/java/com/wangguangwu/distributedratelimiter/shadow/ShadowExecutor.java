@@ -0,0 +1,79 @@
+package com.wangguangwu.distributedratelimiter.shadow;
+
+import com.wangguangwu.distributedratelimiter.metrics.RateLimitMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 影子模式的评估线程池。
+ * <p>
+ * 影子模式的限流判定需要访问 Redis，放在独立的有界线程池中执行，请求线程只负责提交任务。
+ * 队列已满时直接丢弃评估并计数，不会阻塞或拖慢请求。
+ * </p>
+ * <p>
+ * 线程池由本类持有，不作为 {@link Executor} 类型的 Bean 暴露：
+ * Spring Boot 只在容器中没有 {@link Executor} 时才自动配置 {@code applicationTaskExecutor}，
+ * 暴露线程池会让 MVC 异步请求与 {@code @Async} 退化为 {@code SimpleAsyncTaskExecutor}。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Component
+public class ShadowExecutor {
+
+    @Value("${rate-limiter.shadow.threads:2}")
+    private int threads;
+
+    @Value("${rate-limiter.shadow.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Resource
+    private RateLimitMetrics rateLimitMetrics;
+
+    private Executor executor;
+
+    /**
+     * 创建线程池。
+     */
+    @PostConstruct
+    public void init() {
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "rate-limiter-shadow-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (r, pool) -> rateLimitMetrics.recordShadowDropped());
+    }
+
+    /**
+     * 停止线程池，丢弃尚未执行的评估。
+     */
+    @PreDestroy
+    public void destroy() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * 提交一次影子评估，队列已满时丢弃。
+     *
+     * @param task 评估任务
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+}
@@ -0,0 +1,156 @@
+package com.wangguangwu.distributedratelimiter.validation;
+
+import com.wangguangwu.distributedratelimiter.annotation.DistributedRateLimiter;
+import com.wangguangwu.distributedratelimiter.config.RateLimitFilterProperties;
+import com.wangguangwu.distributedratelimiter.enums.LimitStrategy;
+import com.wangguangwu.distributedratelimiter.enums.LimitType;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PatternParseException;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 限流定义的启动校验。
+ * <p>
+ * 所有单例创建完成后，扫描 Bean 中标注了 {@link DistributedRateLimiter} 的方法并校验注解参数，
+ * 不合法的定义汇总后以 {@link IllegalStateException} 终止启动，避免错误的配置在第一次请求时才以
+ * {@link IllegalArgumentException} 暴露。限流计数保存在后端，不需要预先创建。
+ * </p>
+ * <p>
+ * 过滤器级别的限流规则由 {@link #validateRules(List)} 按同样的规则校验。过滤器在 Web 容器启动时就会创建，
+ * 早于所有单例创建完成，因此由 {@link com.wangguangwu.distributedratelimiter.config.RateLimitFilterConfig}
+ * 在创建过滤器之前调用。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+@Component
+public class RateLimiterDefinitionValidator implements SmartInitializingSingleton {
+
+    @Resource
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> errors = new ArrayList<>();
+        int definitions = 0;
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType = beanFactory.getType(beanName, false);
+            if (beanType == null) {
+                continue;
+            }
+            Set<Method> methods = MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+                    (ReflectionUtils.MethodFilter) method ->
+                            AnnotatedElementUtils.hasAnnotation(method, DistributedRateLimiter.class));
+            for (Method method : methods) {
+                definitions++;
+                String problem = validate(AnnotatedElementUtils.findMergedAnnotation(method, DistributedRateLimiter.class),
+                        method.getReturnType());
+                if (problem != null) {
+                    errors.add(method.getDeclaringClass().getName() + "." + method.getName() + ": " + problem);
+                }
+            }
+        }
+        failOnErrors(errors);
+        log.info("已校验 {} 个限流定义", definitions);
+    }
+
+    /**
+     * 校验过滤器级别的限流规则。
+     *
+     * @param rules 限流规则
+     * @throws IllegalStateException 存在不合法的规则
+     */
+    public static void validateRules(List<RateLimitFilterProperties.Rule> rules) {
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            String problem = validate(rules.get(i));
+            if (problem != null) {
+                errors.add("rate-limiter.filter.rules[" + i + "]: " + problem);
+            }
+        }
+        failOnErrors(errors);
+    }
+
+    /**
+     * 校验单个限流定义。
+     *
+     * @param distributedRateLimiter 限流注解
+     * @param returnType             被注解方法的返回值类型
+     * @return 不合法的原因，合法时返回 null
+     */
+    static String validate(DistributedRateLimiter distributedRateLimiter, Class<?> returnType) {
+        if (distributedRateLimiter.count() <= 0 || distributedRateLimiter.period() <= 0) {
+            return "访问次数与时间窗口必须为正数";
+        }
+        if (distributedRateLimiter.limitType() == LimitType.CUSTOMER && StringUtils.isBlank(distributedRateLimiter.key())) {
+            return "限流键不可为空";
+        }
+        double criticalReserve = distributedRateLimiter.criticalReserve();
+        double normalReserve = distributedRateLimiter.normalReserve();
+        if (criticalReserve < 0 || normalReserve < 0 || criticalReserve + normalReserve > 1) {
+            return "优先级预留比例不合法";
+        }
+        if (distributedRateLimiter.maxQueueDelay() < 0) {
+            return "最大排队时间不能为负数";
+        }
+        // 同步方法排队会阻塞 Servlet 线程，漏桶排队只允许用于异步方法
+        if (distributedRateLimiter.strategy() == LimitStrategy.LEAKY_BUCKET && distributedRateLimiter.maxQueueDelay() > 0
+                && !CompletionStage.class.isAssignableFrom(returnType) && !Publisher.class.isAssignableFrom(returnType)) {
+            return "漏桶排队只能用于返回 CompletionStage、Mono 或 Flux 的方法";
+        }
+        if (distributedRateLimiter.quota() < 0) {
+            return "长周期配额不能为负数";
+        }
+        return null;
+    }
+
+    /**
+     * 校验单条过滤器限流规则。
+     *
+     * @param rule 限流规则
+     * @return 不合法的原因，合法时返回 null
+     */
+    static String validate(RateLimitFilterProperties.Rule rule) {
+        if (StringUtils.isBlank(rule.getPattern())) {
+            return "URL 模式不可为空";
+        }
+        try {
+            PathPatternParser.defaultInstance.parse(rule.getPattern());
+        } catch (PatternParseException e) {
+            return "URL 模式不合法: " + e.getMessage();
+        }
+        if (StringUtils.isBlank(rule.getKey())) {
+            return "限流键不可为空";
+        }
+        if (rule.getCount() <= 0 || rule.getPeriod() <= 0) {
+            return "访问次数与时间窗口必须为正数";
+        }
+        if (rule.getLimitType() == null) {
+            return "限流维度不可为空";
+        }
+        return null;
+    }
+
+    private static void failOnErrors(List<String> errors) {
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("限流定义不合法:\n" + String.join("\n", errors));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+-- 漏桶排队脚本，为每个请求分配下一个可执行的时间点
+local key = KEYS[1]
+-- 相邻两个请求的间隔，单位毫秒
+local interval = tonumber(ARGV[1])
+-- 允许的最大排队时间，单位毫秒
+local max_delay = tonumber(ARGV[2])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + tonumber(time[2]) / 1000
+
+-- 获取下一个空闲的时间点，如果键不存在或已经过去则为当前时间
+local next_slot = tonumber(redis.call('get', key) or "0")
+if next_slot < now then
+    next_slot = now
+end
+
+local wait = next_slot - now
+if wait > max_delay then
+    -- 排队时间超过上限，返回-1表示请求被拒绝
+    return -1
+end
+
+-- 占用该时间点，并在队列排空后自动过期
+redis.call('SET', key, next_slot + interval, 'PX', math.ceil(wait + interval))
+return math.ceil(wait)
@@ -0,0 +1,42 @@
+-- 按优先级预留容量的限流脚本
+-- KEYS[1] 计数哈希：total 为窗口内的总请求数，p0/p1/p2 为各优先级的请求数
+-- KEYS[2] 活跃哈希：p0/p1/p2 为各优先级最近一次请求的时间（毫秒）
+local key = KEYS[1]
+local active_key = KEYS[2]
+local limit = tonumber(ARGV[1])
+-- 获取过期时间
+local expire_time = tonumber(ARGV[2])
+-- 请求的优先级，0 最高
+local priority = tonumber(ARGV[3])
+-- 为各优先级预留的请求数
+local reserved = { tonumber(ARGV[4]), tonumber(ARGV[5]) }
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local active_window = expire_time * 1000
+
+-- 记录当前优先级的活跃时间
+redis.call('HSET', active_key, 'p' .. priority, now)
+redis.call('EXPIRE', active_key, expire_time)
+
+-- 计算需要为活跃的更高优先级保留、且尚未被其使用的请求数
+local floor = 0
+for p = 0, priority - 1 do
+    local last = tonumber(redis.call('HGET', active_key, 'p' .. p) or "0")
+    if now - last < active_window then
+        local used = tonumber(redis.call('HGET', key, 'p' .. p) or "0")
+        floor = floor + math.max(0, reserved[p + 1] - used)
+    end
+end
+
+local current = tonumber(redis.call('HGET', key, 'total') or "0")
+
+if current + 1 + floor > limit then
+    -- 如果当前请求数量加1加上保留量超过限制大小，返回0表示请求被拒绝
+    return 0
+else
+    redis.call('HINCRBY', key, 'total', 1)
+    redis.call('HINCRBY', key, 'p' .. priority, 1)
+    redis.call('EXPIRE', key, expire_time)
+    return 1
+end
@@ -0,0 +1,15 @@
+-- 长周期配额的批量写回脚本，累加各节点本地汇总的用量并返回累加后的总用量
+-- KEYS[i] 配额键，ARGV[1] 配额键的过期时间（秒），ARGV[i + 1] 对应配额键的本地增量
+local expire_time = tonumber(ARGV[1])
+local totals = {}
+
+for i, key in ipairs(KEYS) do
+    local total = redis.call('INCRBY', key, tonumber(ARGV[i + 1]))
+    -- 只在第一次写入时设置过期时间，避免每次写回都延长配额键的生命周期
+    if redis.call('TTL', key) < 0 then
+        redis.call('EXPIRE', key, expire_time)
+    end
+    totals[i] = total
+end
+
+return totals
@@ -1,13 +1,22 @@
 package com.wangguangwu.distributedratelimiter;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 class DistributedRateLimiterApplicationTests {
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     @Test
     void contextLoads() {
+        // 影子线程池不能顶替 Spring Boot 自动配置的任务线程池
+        assertTrue(applicationContext.containsBean("applicationTaskExecutor"));
     }
 
 }
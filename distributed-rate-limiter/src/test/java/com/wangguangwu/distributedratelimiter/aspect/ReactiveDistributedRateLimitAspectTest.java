@@ -0,0 +1,140 @@
+package com.wangguangwu.distributedratelimiter.aspect;
+
+import com.wangguangwu.distributedratelimiter.annotation.DistributedRateLimiter;
+import com.wangguangwu.distributedratelimiter.backend.InMemoryRateLimitBackend;
+import com.wangguangwu.distributedratelimiter.enums.LimitMode;
+import com.wangguangwu.distributedratelimiter.enums.LimitStrategy;
+import com.wangguangwu.distributedratelimiter.enums.LimitType;
+import com.wangguangwu.distributedratelimiter.ipfilter.ClientIpResolver;
+import com.wangguangwu.distributedratelimiter.ipfilter.IpAccessList;
+import com.wangguangwu.distributedratelimiter.metrics.RateLimitMetrics;
+import com.wangguangwu.distributedratelimiter.priority.HeaderPriorityResolver;
+import com.wangguangwu.distributedratelimiter.shadow.ShadowExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 响应式限流切面单元测试
+ *
+ * @author wangguangwu
+ */
+public class ReactiveDistributedRateLimitAspectTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Api api;
+
+    @BeforeEach
+    public void setUp() {
+        RateLimitMetrics rateLimitMetrics = new RateLimitMetrics();
+        ReflectionTestUtils.setField(rateLimitMetrics, "meterRegistry", meterRegistry);
+
+        // 影子评估在调用线程上同步执行，便于断言指标
+        ShadowExecutor shadowExecutor = new ShadowExecutor();
+        ReflectionTestUtils.setField(shadowExecutor, "executor", (Executor) Runnable::run);
+
+        RateLimitEvaluator rateLimitEvaluator = new RateLimitEvaluator();
+        ReflectionTestUtils.setField(rateLimitEvaluator, "rateLimitBackend", new InMemoryRateLimitBackend());
+        ReflectionTestUtils.setField(rateLimitEvaluator, "rateLimitMetrics", rateLimitMetrics);
+        ReflectionTestUtils.setField(rateLimitEvaluator, "ipAccessList", new IpAccessList());
+        ReflectionTestUtils.setField(rateLimitEvaluator, "shadowExecutor", shadowExecutor);
+
+        ReactiveDistributedRateLimitAspect aspect = new ReactiveDistributedRateLimitAspect();
+        ReflectionTestUtils.setField(aspect, "rateLimitEvaluator", rateLimitEvaluator);
+        ReflectionTestUtils.setField(aspect, "priorityResolver", new HeaderPriorityResolver());
+        ReflectionTestUtils.setField(aspect, "clientIpResolver", new ClientIpResolver());
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Api());
+        factory.addAspect(aspect);
+        api = factory.getProxy();
+    }
+
+    @Test
+    public void testMonoRejectedWhenCountExceeded() {
+        StepVerifier.create(api.action()).expectNext("success").verifyComplete();
+        StepVerifier.create(api.action()).expectNext("success").verifyComplete();
+        StepVerifier.create(api.action())
+                .expectErrorMatches(e -> e instanceof ResponseStatusException ex
+                        && ex.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS)
+                .verify();
+    }
+
+    @Test
+    public void testFluxLimitedByIpFromExchange() {
+        StepVerifier.create(withIp(api.items(), "10.0.0.1")).expectNext("a", "b").verifyComplete();
+        StepVerifier.create(withIp(api.items(), "10.0.0.1")).expectError(ResponseStatusException.class).verify();
+        StepVerifier.create(withIp(api.items(), "10.0.0.2")).expectNext("a", "b").verifyComplete();
+    }
+
+    @Test
+    public void testLeakyBucketDefersWithoutBlocking() {
+        StepVerifier.create(api.queued()).expectNext("success").verifyComplete();
+        // 第二个请求排队 500ms，通过虚拟时间验证延迟来自 Mono.delay
+        StepVerifier.withVirtualTime(api::queued)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(400))
+                .thenAwait(Duration.ofMillis(200))
+                .expectNext("success")
+                .verifyComplete();
+    }
+
+    @Test
+    public void testShadowModeNeverRejectsButRecordsDecision() {
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(api.shadow()).expectNext("success").verifyComplete();
+        }
+
+        assertEquals(1.0, meterRegistry.get("rate.limiter.requests")
+                .tags("limiter", "shadow", "mode", "shadow", "result", "admitted").counter().count());
+        assertEquals(2.0, meterRegistry.get("rate.limiter.requests")
+                .tags("limiter", "shadow", "mode", "shadow", "result", "rejected").counter().count());
+    }
+
+    private static <T> Flux<T> withIp(Flux<T> flux, String ip) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/items").remoteAddress(new InetSocketAddress(ip, 80)));
+        return flux.contextWrite(context ->
+                context.put(ServerWebExchangeContextFilter.EXCHANGE_CONTEXT_ATTRIBUTE, exchange));
+    }
+
+    static class Api {
+
+        @DistributedRateLimiter(key = "action", count = 2)
+        public Mono<String> action() {
+            return Mono.just("success");
+        }
+
+        @DistributedRateLimiter(key = "items", count = 1, limitType = LimitType.IP)
+        public Flux<String> items() {
+            return Flux.just("a", "b");
+        }
+
+        @DistributedRateLimiter(key = "queued", count = 2, strategy = LimitStrategy.LEAKY_BUCKET, maxQueueDelay = 1000)
+        public Mono<String> queued() {
+            return Mono.just("success");
+        }
+
+        @DistributedRateLimiter(key = "shadow", count = 1, mode = LimitMode.SHADOW)
+        public Mono<String> shadow() {
+            return Mono.just("success");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.wangguangwu.distributedratelimiter.backend;
+
+import com.wangguangwu.distributedratelimiter.enums.TrafficPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 进程内限流后端单元测试
+ * <p>
+ * 验证与 limit.lua 一致的计数、过期与清理语义。
+ *
+ * @author wangguangwu
+ */
+public class InMemoryRateLimitBackendTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final InMemoryRateLimitBackend backend = new InMemoryRateLimitBackend(clock::get);
+
+    @Test
+    public void testRejectWhenCountExceeded() {
+        assertTrue(backend.tryAcquire("limiter:action", 3, 1));
+        assertTrue(backend.tryAcquire("limiter:action", 3, 1));
+        assertTrue(backend.tryAcquire("limiter:action", 3, 1));
+        assertFalse(backend.tryAcquire("limiter:action", 3, 1));
+
+        // 不同的键互不影响
+        assertTrue(backend.tryAcquire("limiter:other", 3, 1));
+    }
+
+    @Test
+    public void testWindowExpiresAfterLastAdmittedRequest() {
+        assertTrue(backend.tryAcquire("limiter:action", 2, 1));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        // 通过的请求会刷新过期时间
+        assertTrue(backend.tryAcquire("limiter:action", 2, 1));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        assertFalse(backend.tryAcquire("limiter:action", 2, 1));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+        assertTrue(backend.tryAcquire("limiter:action", 2, 1));
+    }
+
+    @Test
+    public void testSweepRemovesExpiredWindows() {
+        backend.tryAcquire("limiter:a", 1, 1);
+        backend.tryAcquire("limiter:b", 1, 2);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        backend.sweep();
+
+        assertEquals(1, backend.size());
+        assertFalse(backend.tryAcquire("limiter:b", 1, 2));
+    }
+
+    @Test
+    public void testPriorityReserveProtectsActiveCriticalTraffic() {
+        // 10 次中为关键流量预留 4 次，为普通流量预留 3 次
+        assertTrue(backend.tryAcquire("limiter:p", 10, 1, TrafficPriority.CRITICAL, 4, 3));
+
+        int bestEffort = 0;
+        while (backend.tryAcquire("limiter:p", 10, 1, TrafficPriority.BEST_EFFORT, 4, 3)) {
+            bestEffort++;
+        }
+        // 普通流量空闲，只需为关键流量保留剩余的 3 次
+        assertEquals(6, bestEffort);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(backend.tryAcquire("limiter:p", 10, 1, TrafficPriority.CRITICAL, 4, 3));
+        }
+        assertFalse(backend.tryAcquire("limiter:p", 10, 1, TrafficPriority.CRITICAL, 4, 3));
+    }
+
+    @Test
+    public void testPriorityReserveBorrowedWhenHigherClassIdle() {
+        int bestEffort = 0;
+        while (backend.tryAcquire("limiter:p", 10, 1, TrafficPriority.BEST_EFFORT, 4, 3)) {
+            bestEffort++;
+        }
+        assertEquals(10, bestEffort);
+
+        // 关键流量出现后，下一个窗口开始为其保留容量
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(backend.tryAcquire("limiter:p", 10, 1, TrafficPriority.CRITICAL, 4, 3));
+        int normal = 0;
+        while (backend.tryAcquire("limiter:p", 10, 1, TrafficPriority.NORMAL, 4, 3)) {
+            normal++;
+        }
+        assertEquals(6, normal);
+    }
+
+    @Test
+    public void testLeakyBucketSpacesRequests() {
+        // 每秒 10 个请求，即每 100ms 一个，最多排队 250ms
+        assertEquals(0, backend.reserve("limiter:queued", 10, 1, 250));
+        assertEquals(100, backend.reserve("limiter:queued", 10, 1, 250));
+        assertEquals(200, backend.reserve("limiter:queued", 10, 1, 250));
+        assertEquals(-1, backend.reserve("limiter:queued", 10, 1, 250));
+
+        // 队列随时间排空
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+        assertEquals(150, backend.reserve("limiter:queued", 10, 1, 250));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, backend.reserve("limiter:queued", 10, 1, 250));
+    }
+
+    @Test
+    public void testConcurrentAcquireNeverOvershoots() throws Exception {
+        int threads = 16;
+        int limit = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(threads);
+        AtomicInteger successCount = new AtomicInteger();
+
+        for (int i = 0; i < threads; i++) {
+            executorService.execute(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < 1000; j++) {
+                        if (backend.tryAcquire("limiter:concurrent", limit, 1)) {
+                            successCount.incrementAndGet();
+                        }
+                        if (j % 100 == 0) {
+                            backend.sweep();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    endLatch.countDown();
+                }
+            });
+        }
+
+        startLatch.countDown();
+        endLatch.await();
+        executorService.shutdown();
+
+        assertEquals(limit, successCount.get());
+    }
+}
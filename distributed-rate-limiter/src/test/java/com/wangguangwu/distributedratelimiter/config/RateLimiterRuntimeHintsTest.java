@@ -0,0 +1,27 @@
+package com.wangguangwu.distributedratelimiter.config;
+
+import com.wangguangwu.distributedratelimiter.annotation.DistributedRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 限流 AOT 运行时提示单元测试
+ *
+ * @author wangguangwu
+ */
+public class RateLimiterRuntimeHintsTest {
+
+    @Test
+    public void testLuaScriptsAndAnnotationAreRegistered() {
+        RuntimeHints hints = new RuntimeHints();
+        new RateLimiterRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        for (String script : new String[]{"limit.lua", "limit_priority.lua", "leaky_bucket.lua", "quota.lua"}) {
+            assertTrue(RuntimeHintsPredicates.resource().forResource(script).test(hints), script);
+        }
+        assertTrue(RuntimeHintsPredicates.reflection().onType(DistributedRateLimiter.class).test(hints));
+    }
+}
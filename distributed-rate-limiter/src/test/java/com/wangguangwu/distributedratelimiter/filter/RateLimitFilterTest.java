@@ -0,0 +1,121 @@
+package com.wangguangwu.distributedratelimiter.filter;
+
+import com.wangguangwu.distributedratelimiter.backend.InMemoryRateLimitBackend;
+import com.wangguangwu.distributedratelimiter.config.RateLimitFilterProperties;
+import com.wangguangwu.distributedratelimiter.enums.LimitType;
+import com.wangguangwu.distributedratelimiter.ipfilter.ClientIpResolver;
+import com.wangguangwu.distributedratelimiter.ipfilter.IpAccessList;
+import com.wangguangwu.distributedratelimiter.ipfilter.IpRangeIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 过滤器级别限流单元测试
+ *
+ * @author wangguangwu
+ */
+public class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    private IpAccessList ipAccessList;
+
+    @BeforeEach
+    public void setUp() {
+        RateLimitFilterProperties.Rule rule = new RateLimitFilterProperties.Rule();
+        rule.setPattern("/api/**");
+        rule.setKey("api");
+        rule.setCount(2);
+        rule.setPeriod(1);
+        rule.setLimitType(LimitType.IP);
+
+        RateLimitFilterProperties properties = new RateLimitFilterProperties();
+        properties.setRules(List.of(rule));
+        ipAccessList = new IpAccessList();
+        filter = new RateLimitFilter(new InMemoryRateLimitBackend(), properties, ipAccessList, new ClientIpResolver());
+    }
+
+    @Test
+    public void testRejectBeforeDispatch() throws Exception {
+        assertNotNull(perform("/api/action", "10.0.0.1", new MockHttpServletResponse()).getRequest());
+        assertNotNull(perform("/api/action", "10.0.0.1", new MockHttpServletResponse()).getRequest());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // 被拒绝的请求不会继续向下传递
+        assertNull(perform("/api/action", "10.0.0.1", response).getRequest());
+        assertEquals(429, response.getStatus());
+        assertTrue(response.getContentAsString().contains("服务出错，请稍后重试"));
+
+        // 其他 IP 不受影响
+        assertNotNull(perform("/api/action", "10.0.0.2", new MockHttpServletResponse()).getRequest());
+    }
+
+    @Test
+    public void testUnmatchedPathPassesThrough() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(perform("/health", "10.0.0.1", new MockHttpServletResponse()).getRequest());
+        }
+    }
+
+    @Test
+    public void testAccessListBypassesLimiting() throws Exception {
+        ReflectionTestUtils.setField(ipAccessList, "index",
+                IpRangeIndex.parse(List.of("allow 10.0.0.0/8", "block 192.0.2.0/24")));
+
+        // 白名单不受限流次数约束
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(perform("/api/action", "10.0.0.1", new MockHttpServletResponse()).getRequest());
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(perform("/api/action", "192.0.2.7", response).getRequest());
+        assertEquals(403, response.getStatus());
+    }
+
+    @Test
+    public void testRejectWhenIpUnresolved() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(perform("/api/action", null, response).getRequest());
+        assertEquals(429, response.getStatus());
+    }
+
+    @Test
+    public void testSpoofedForwardedForIsIgnored() throws Exception {
+        ReflectionTestUtils.setField(ipAccessList, "index", IpRangeIndex.parse(List.of("allow 10.0.0.0/8")));
+
+        // 未配置可信代理，客户端伪造的白名单地址不生效，仍按对端地址限流
+        for (int i = 0; i < 2; i++) {
+            assertNotNull(perform("/api/action", "203.0.113.5", "10.0.0.1", new MockHttpServletResponse()).getRequest());
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(perform("/api/action", "203.0.113.5", "10.0.0.1", response).getRequest());
+        assertEquals(429, response.getStatus());
+    }
+
+    private MockFilterChain perform(String uri, String ip, MockHttpServletResponse response) throws Exception {
+        return perform(uri, ip, null, response);
+    }
+
+    private MockFilterChain perform(String uri, String ip, String forwardedFor, MockHttpServletResponse response)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(ip);
+        if (forwardedFor != null) {
+            request.addHeader("x-forwarded-for", forwardedFor);
+        }
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        return chain;
+    }
+}
@@ -0,0 +1,44 @@
+package com.wangguangwu.distributedratelimiter.ipfilter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 客户端 IP 解析单元测试
+ *
+ * @author wangguangwu
+ */
+public class ClientIpResolverTest {
+
+    @Test
+    public void testForwardedForIgnoredWithoutTrustedProxies() {
+        ClientIpResolver resolver = resolver(List.of());
+
+        assertEquals("203.0.113.5", resolver.resolve("203.0.113.5", "10.0.0.1"));
+        assertEquals("203.0.113.5", resolver.resolve("203.0.113.5", null));
+    }
+
+    @Test
+    public void testRightMostUntrustedHop() {
+        ClientIpResolver resolver = resolver(List.of("10.0.0.0/8", " 192.168.1.1 "));
+
+        // 对端不是可信代理，伪造的请求头不生效
+        assertEquals("203.0.113.5", resolver.resolve("203.0.113.5", "10.0.0.1"));
+        // 经过两层可信代理，最左侧由客户端伪造的地址不予采用
+        assertEquals("198.51.100.7", resolver.resolve("10.0.0.2", "10.9.9.9, 198.51.100.7, 192.168.1.1"));
+        // 转发链上全部是可信代理
+        assertEquals("10.1.1.1", resolver.resolve("10.0.0.2", "10.1.1.1, 192.168.1.1"));
+        assertEquals("10.0.0.2", resolver.resolve("10.0.0.2", " , "));
+    }
+
+    private static ClientIpResolver resolver(List<String> trustedProxies) {
+        ClientIpResolver resolver = new ClientIpResolver();
+        ReflectionTestUtils.setField(resolver, "trustedProxies", trustedProxies);
+        resolver.init();
+        return resolver;
+    }
+}
@@ -0,0 +1,52 @@
+package com.wangguangwu.distributedratelimiter.ipfilter;
+
+import com.wangguangwu.distributedratelimiter.enums.IpAccess;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * IP 黑白名单热加载单元测试
+ *
+ * @author wangguangwu
+ */
+public class IpAccessListTest {
+
+    @TempDir
+    private Path dir;
+
+    private final IpAccessList ipAccessList = new IpAccessList();
+
+    @AfterEach
+    public void tearDown() {
+        ipAccessList.destroy();
+    }
+
+    @Test
+    public void testReloadOnChangeAndKeepOnError() throws Exception {
+        Path file = dir.resolve("ip-access.txt");
+        Files.writeString(file, "block 192.0.2.0/24\n");
+        ReflectionTestUtils.setField(ipAccessList, "path", file.toString());
+        ReflectionTestUtils.setField(ipAccessList, "reloadIntervalMillis", 60_000L);
+        ipAccessList.init();
+        assertEquals(IpAccess.BLOCK, ipAccessList.check("192.0.2.1"));
+
+        Files.writeString(file, "allow 192.0.2.0/24\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        ipAccessList.reload();
+        assertEquals(IpAccess.ALLOW, ipAccessList.check("192.0.2.1"));
+
+        // 格式错误时保留原有的名单
+        Files.writeString(file, "allow 192.0.2.0/99\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 2000));
+        ipAccessList.reload();
+        assertEquals(IpAccess.ALLOW, ipAccessList.check("192.0.2.1"));
+    }
+}
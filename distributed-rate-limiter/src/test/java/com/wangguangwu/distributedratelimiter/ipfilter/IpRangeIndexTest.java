@@ -0,0 +1,94 @@
+package com.wangguangwu.distributedratelimiter.ipfilter;
+
+import com.wangguangwu.distributedratelimiter.enums.IpAccess;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * IP 黑白名单索引单元测试
+ *
+ * @author wangguangwu
+ */
+public class IpRangeIndexTest {
+
+    @Test
+    public void testMostSpecificRuleWins() {
+        IpRangeIndex index = IpRangeIndex.parse(List.of(
+                "# 内网",
+                "allow 10.0.0.0/8",
+                "block 10.1.0.0/16",
+                "allow 10.1.2.3",
+                "block 203.0.113.0/24  # 扫描器",
+                "allow 203.0.113.0/24"));
+
+        assertEquals(IpAccess.ALLOW, index.lookup("10.0.0.1"));
+        assertEquals(IpAccess.ALLOW, index.lookup("10.255.255.255"));
+        assertEquals(IpAccess.BLOCK, index.lookup("10.1.0.0"));
+        assertEquals(IpAccess.BLOCK, index.lookup("10.1.255.255"));
+        assertEquals(IpAccess.ALLOW, index.lookup("10.1.2.3"));
+        // 范围完全相同时黑名单优先
+        assertEquals(IpAccess.BLOCK, index.lookup("203.0.113.99"));
+        assertEquals(IpAccess.NONE, index.lookup("11.0.0.0"));
+        assertEquals(IpAccess.NONE, index.lookup("9.255.255.255"));
+    }
+
+    @Test
+    public void testIpv6AndMalformedAddresses() {
+        IpRangeIndex index = IpRangeIndex.parse(List.of(
+                "block 2001:db8::/32",
+                "allow 2001:db8:1::/48",
+                "allow 192.168.0.0/16"));
+
+        assertEquals(IpAccess.BLOCK, index.lookup("2001:db8:ffff::1"));
+        assertEquals(IpAccess.ALLOW, index.lookup("2001:db8:1::abcd"));
+        assertEquals(IpAccess.NONE, index.lookup("2001:db9::1"));
+        // IPv4 映射地址按 IPv4 查询
+        assertEquals(IpAccess.ALLOW, index.lookup("::ffff:192.168.1.1"));
+        // 只接受单个地址，x-forwarded-for 需要先经过 ClientIpResolver 解析
+        assertEquals(IpAccess.NONE, index.lookup("192.168.3.4, 8.8.8.8"));
+        // 无法解析的地址视为未命中，不会查询 DNS
+        assertEquals(IpAccess.NONE, index.lookup("unknown"));
+        assertEquals(IpAccess.NONE, index.lookup(null));
+    }
+
+    @Test
+    public void testIpv6LiteralsAreParsedWithoutResolver() {
+        assertArrayEquals(new byte[16], IpRangeIndex.parseIpv6("::"));
+        assertArrayEquals(IpRangeIndex.parseIpv6("2001:db8:0:0:0:0:2:1"), IpRangeIndex.parseIpv6("2001:DB8::2:1"));
+        assertArrayEquals(IpRangeIndex.parseIpv6("2001:db8::1"), IpRangeIndex.parseIpv6("[2001:db8::1%eth0]"));
+        assertArrayEquals(new byte[]{(byte) 192, (byte) 168, 1, 1}, IpRangeIndex.parseIpv6("::ffff:192.168.1.1"));
+        for (String invalid : new String[]{"g:1", "1::2::3", "1:2:3:4:5:6:7:8:9", "12345::1", ":1", "1:", "::1.2.3", "example.com:80"}) {
+            assertNull(IpRangeIndex.parseIpv6(invalid), invalid);
+        }
+
+        // 非法字面量视为未命中，不会交给系统解析器
+        IpRangeIndex index = IpRangeIndex.parse(List.of("block ::/0"));
+        assertEquals(IpAccess.NONE, index.lookup("g:1"));
+        assertEquals(IpAccess.BLOCK, index.lookup("fe80::1"));
+    }
+
+    @Test
+    public void testIpv4BucketsAllocatedOnlyForIpv4Ranges() {
+        IpRangeIndex index = IpRangeIndex.allowing(List.of("2001:db8::/32"));
+
+        // 只有 IPv6 地址时不分配 IPv4 一级索引，IPv4 地址直接未命中
+        assertNull(ReflectionTestUtils.getField(index, "v4Buckets"));
+        assertNull(ReflectionTestUtils.getField(IpRangeIndex.EMPTY, "v4Buckets"));
+        assertEquals(IpAccess.NONE, index.lookup("10.0.0.1"));
+        assertEquals(IpAccess.ALLOW, index.lookup("2001:db8::1"));
+    }
+
+    @Test
+    public void testRejectMalformedLine() {
+        assertThrows(IllegalArgumentException.class, () -> IpRangeIndex.parse(List.of("allow 10.0.0.0/33")));
+        assertThrows(IllegalArgumentException.class, () -> IpRangeIndex.parse(List.of("deny 10.0.0.1")));
+        assertThrows(IllegalArgumentException.class, () -> IpRangeIndex.parse(List.of("allow example.com")));
+    }
+}
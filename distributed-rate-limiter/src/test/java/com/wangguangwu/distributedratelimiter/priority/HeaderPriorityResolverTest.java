@@ -0,0 +1,48 @@
+package com.wangguangwu.distributedratelimiter.priority;
+
+import com.wangguangwu.distributedratelimiter.enums.TrafficPriority;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 请求头优先级解析单元测试
+ *
+ * @author wangguangwu
+ */
+public class HeaderPriorityResolverTest {
+
+    @Test
+    public void testHeaderOnlyTrustedFromConfiguredSources() {
+        HeaderPriorityResolver resolver = new HeaderPriorityResolver();
+        ReflectionTestUtils.setField(resolver, "header", "X-Traffic-Priority");
+        ReflectionTestUtils.setField(resolver, "trustedSources", List.of("10.0.0.0/8"));
+        resolver.init();
+
+        assertEquals(TrafficPriority.CRITICAL, resolver.resolve(exchange("10.1.2.3", "critical")));
+        // 外部客户端自行声明的优先级被忽略
+        assertEquals(TrafficPriority.NORMAL, resolver.resolve(exchange("203.0.113.5", "critical")));
+    }
+
+    @Test
+    public void testHeaderIgnoredWithoutTrustedSources() {
+        HeaderPriorityResolver resolver = new HeaderPriorityResolver();
+        ReflectionTestUtils.setField(resolver, "header", "X-Traffic-Priority");
+        ReflectionTestUtils.setField(resolver, "trustedSources", List.of());
+        resolver.init();
+
+        assertEquals(TrafficPriority.NORMAL, resolver.resolve(exchange("10.1.2.3", "critical")));
+    }
+
+    private static MockServerWebExchange exchange(String peer, String priority) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/action")
+                .remoteAddress(new InetSocketAddress(peer, 80))
+                .header("X-Traffic-Priority", priority));
+    }
+}
@@ -0,0 +1,181 @@
+package com.wangguangwu.distributedratelimiter.quota;
+
+import com.wangguangwu.distributedratelimiter.backend.InMemoryRateLimitBackend;
+import com.wangguangwu.distributedratelimiter.backend.RateLimitBackend;
+import com.wangguangwu.distributedratelimiter.enums.QuotaPeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 长周期配额管理器单元测试
+ * <p>
+ * 用两个共享同一个后端的管理器模拟两个节点，验证本地判定与批量写回。
+ *
+ * @author wangguangwu
+ */
+public class QuotaManagerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-08-15T10:00:00Z"), ZoneOffset.UTC);
+
+    private final RateLimitBackend backend = new InMemoryRateLimitBackend();
+
+    private QuotaManager node1;
+
+    private QuotaManager node2;
+
+    @BeforeEach
+    public void setUp() {
+        node1 = newManager(backend);
+        node2 = newManager(backend);
+    }
+
+    @Test
+    public void testLocalUsageIsLimitedWithoutFlush() {
+        String quotaKey = null;
+        for (int i = 0; i < 5; i++) {
+            quotaKey = node1.acquire("limiter:plan", 5, QuotaPeriod.MONTH);
+            assertEquals("limiter:plan:quota:202408", quotaKey);
+        }
+        assertFalse(node1.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+
+        // 归还的配额可以再次使用
+        node1.release(quotaKey);
+        assertTrue(node1.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+    }
+
+    @Test
+    public void testFlushSharesUsageAcrossNodes() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(node1.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+        }
+        node1.flush();
+        node2.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH);
+        node2.flush();
+
+        // node2 写回时取回了 node1 的用量，总用量为 4
+        assertTrue(node2.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+        assertFalse(node2.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+        assertEquals(List.of(4L), backend.incrementQuotas(List.of("limiter:plan:quota:202408"), List.of(0L), 60));
+    }
+
+    @Test
+    public void testFailedFlushKeepsLocalUsage() {
+        RateLimitBackend failing = Mockito.mock(RateLimitBackend.class);
+        Mockito.when(failing.incrementQuotas(Mockito.anyList(), Mockito.anyList(), Mockito.anyLong()))
+                .thenThrow(new IllegalStateException("redis down"));
+        QuotaManager manager = newManager(failing);
+
+        assertTrue(manager.tryAcquire("limiter:plan", 2, QuotaPeriod.DAY));
+        manager.flush();
+        assertTrue(manager.tryAcquire("limiter:plan", 2, QuotaPeriod.DAY));
+        assertFalse(manager.tryAcquire("limiter:plan", 2, QuotaPeriod.DAY));
+    }
+
+    @Test
+    public void testRestartedNodeLoadsUsageBeforeFirstDecision() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(node1.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+        }
+        node1.flush();
+
+        // 新节点首次判定前先取回总用量，不会从 0 开始计数
+        assertFalse(node2.isLoaded("limiter:plan", QuotaPeriod.MONTH));
+        assertFalse(node2.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+        assertTrue(node2.isLoaded("limiter:plan", QuotaPeriod.MONTH));
+    }
+
+    @Test
+    public void testIdleCounterIsKeptUntilPeriodEnds() {
+        MutableClock clock = new MutableClock(CLOCK.instant());
+        QuotaManager manager = newManager(backend, clock);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(manager.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+        }
+        manager.flush();
+
+        // 长时间没有请求后再次访问，仍然沿用已用完的配额
+        clock.instant = clock.instant.plus(Duration.ofHours(1));
+        manager.flush();
+        assertFalse(manager.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+
+        // 配额周期结束后移除本地状态，新周期重新计数
+        clock.instant = Instant.parse("2024-09-01T00:00:00Z");
+        manager.flush();
+        assertFalse(manager.isLoaded("limiter:plan", QuotaPeriod.MONTH));
+        assertTrue(manager.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+    }
+
+    @Test
+    public void testReleaseAcrossPeriodBoundaryReturnsChargedPeriod() {
+        MutableClock clock = new MutableClock(Instant.parse("2024-08-31T23:59:59Z"));
+        QuotaManager manager = newManager(backend, clock);
+        String charged = manager.acquire("limiter:plan", 5, QuotaPeriod.MONTH);
+
+        // 短周期限流在进入新周期之后才拒绝请求，归还到扣减时的 8 月配额
+        clock.instant = Instant.parse("2024-09-01T00:00:01Z");
+        for (int i = 0; i < 5; i++) {
+            assertTrue(manager.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+        }
+        manager.release(charged);
+        assertFalse(manager.tryAcquire("limiter:plan", 5, QuotaPeriod.MONTH));
+
+        manager.flush();
+        assertEquals(List.of(0L), backend.incrementQuotas(List.of("limiter:plan:quota:202408"), List.of(0L), 60));
+        assertEquals(List.of(5L), backend.incrementQuotas(List.of("limiter:plan:quota:202409"), List.of(0L), 60));
+    }
+
+    @Test
+    public void testDefaultClockIsUtc() {
+        // 配额周期不受节点时区影响，各节点在同一时刻切换每日、每月配额键
+        Clock clock = (Clock) ReflectionTestUtils.getField(new QuotaManager(), "clock");
+        assertEquals(ZoneOffset.UTC, clock.getZone());
+    }
+
+    private static QuotaManager newManager(RateLimitBackend backend) {
+        return newManager(backend, CLOCK);
+    }
+
+    private static QuotaManager newManager(RateLimitBackend backend, Clock clock) {
+        QuotaManager manager = new QuotaManager(clock);
+        ReflectionTestUtils.setField(manager, "rateLimitBackend", backend);
+        ReflectionTestUtils.setField(manager, "batchSize", 2);
+        return manager;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
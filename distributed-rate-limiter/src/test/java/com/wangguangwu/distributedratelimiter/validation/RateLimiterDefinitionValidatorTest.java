@@ -0,0 +1,105 @@
+package com.wangguangwu.distributedratelimiter.validation;
+
+import com.wangguangwu.distributedratelimiter.annotation.DistributedRateLimiter;
+import com.wangguangwu.distributedratelimiter.config.RateLimitFilterProperties;
+import com.wangguangwu.distributedratelimiter.enums.LimitStrategy;
+import com.wangguangwu.distributedratelimiter.enums.LimitType;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 限流定义启动校验单元测试
+ *
+ * @author wangguangwu
+ */
+public class RateLimiterDefinitionValidatorTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withBean(RateLimiterDefinitionValidator.class);
+
+    @Test
+    public void testValidDefinitionsStart() {
+        runner.withBean(ValidApi.class).run(context -> assertThat(context).hasNotFailed());
+    }
+
+    @Test
+    public void testInvalidDefinitionFailsStartup() {
+        runner.withBean(InvalidApi.class).run(context -> assertThat(context).hasFailed()
+                .getFailure()
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(InvalidApi.class.getName() + ".blankKey: 限流键不可为空")
+                .hasMessageContaining(InvalidApi.class.getName() + ".overReserved: 优先级预留比例不合法")
+                .hasMessageContaining(InvalidApi.class.getName() + ".blockingQueue: 漏桶排队只能用于"));
+    }
+
+    @Test
+    public void testFilterRules() {
+        assertThatCode(() -> RateLimiterDefinitionValidator.validateRules(List.of(rule("/api/**", "api", 10, 1))))
+                .doesNotThrowAnyException();
+
+        assertThatThrownBy(() -> RateLimiterDefinitionValidator.validateRules(List.of(
+                rule("/api/**", "api", 10, 1),
+                rule(null, "api", 10, 1),
+                rule("/api/**", " ", 10, 1),
+                rule("/api/**", "api", 0, 1))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("rate-limiter.filter.rules[1]: URL 模式不可为空")
+                .hasMessageContaining("rate-limiter.filter.rules[2]: 限流键不可为空")
+                .hasMessageContaining("rate-limiter.filter.rules[3]: 访问次数与时间窗口必须为正数")
+                .hasMessageNotContaining("rules[0]");
+    }
+
+    private static RateLimitFilterProperties.Rule rule(String pattern, String key, int count, int period) {
+        RateLimitFilterProperties.Rule rule = new RateLimitFilterProperties.Rule();
+        rule.setPattern(pattern);
+        rule.setKey(key);
+        rule.setCount(count);
+        rule.setPeriod(period);
+        return rule;
+    }
+
+    static class ValidApi {
+
+        @DistributedRateLimiter(key = "action", count = 5)
+        public String action() {
+            return "success";
+        }
+
+        // 按 IP 限流时限流键来自请求
+        @DistributedRateLimiter(key = "", limitType = LimitType.IP)
+        public String ip() {
+            return "success";
+        }
+
+        @DistributedRateLimiter(key = "queued", strategy = LimitStrategy.LEAKY_BUCKET, maxQueueDelay = 500)
+        public CompletableFuture<String> queued() {
+            return CompletableFuture.completedFuture("success");
+        }
+    }
+
+    static class InvalidApi {
+
+        @DistributedRateLimiter(key = " ")
+        public String blankKey() {
+            return "success";
+        }
+
+        @DistributedRateLimiter(key = "reserve", criticalReserve = 0.8, normalReserve = 0.5)
+        public String overReserved() {
+            return "success";
+        }
+
+        // 同步方法排队会阻塞请求线程
+        @DistributedRateLimiter(key = "queued", strategy = LimitStrategy.LEAKY_BUCKET, maxQueueDelay = 500)
+        public String blockingQueue() {
+            return "success";
+        }
+    }
+}
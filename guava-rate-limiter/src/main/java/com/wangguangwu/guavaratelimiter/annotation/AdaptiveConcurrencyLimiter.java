@@ -0,0 +1,47 @@
+package com.wangguangwu.guavaratelimiter.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 自适应并发限流注解。
+ * <p>
+ * 与 {@link GuavaRateLimiter} 限制固定的请求速率不同，该注解限制方法的并发执行数，
+ * 并根据方法实际的执行耗时动态调整并发上限：耗时升高时收紧，耗时恢复时放宽。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AdaptiveConcurrencyLimiter {
+
+    /**
+     * 初始并发上限
+     *
+     * @return initialLimit
+     */
+    int initialLimit() default 20;
+
+    /**
+     * 并发上限的最小值
+     *
+     * @return minLimit
+     */
+    int minLimit() default 1;
+
+    /**
+     * 并发上限的最大值
+     *
+     * @return maxLimit
+     */
+    int maxLimit() default 200;
+
+    /**
+     * 耗时采样窗口，单位毫秒，每个窗口结束时调整一次并发上限
+     *
+     * @return windowMillis
+     */
+    long windowMillis() default 1000;
+
+}
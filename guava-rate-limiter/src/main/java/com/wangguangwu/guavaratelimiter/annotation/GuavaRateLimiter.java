@@ -1,5 +1,9 @@
 package com.wangguangwu.guavaratelimiter.annotation;
 
+import com.wangguangwu.guavaratelimiter.enums.LimitMode;
+import com.wangguangwu.guavaratelimiter.enums.LimitType;
+import com.wangguangwu.guavaratelimiter.enums.TrafficPriority;
+
 import java.lang.annotation.*;
 
 /**
@@ -29,4 +33,51 @@ public @interface GuavaRateLimiter {
      */
     int timeout() default 0;
 
+    /**
+     * 为 {@link TrafficPriority#CRITICAL} 流量预留的容量比例，取值 0 ~ 1，默认不预留
+     * <p>
+     * 与 {@link #normalReserve()} 都为 0 时不区分优先级。
+     *
+     * @return criticalReserve
+     */
+    double criticalReserve() default 0.0;
+
+    /**
+     * 为 {@link TrafficPriority#NORMAL} 流量预留的容量比例，取值 0 ~ 1，默认不预留
+     *
+     * @return normalReserve
+     */
+    double normalReserve() default 0.0;
+
+    /**
+     * {@link #rate()} 是否为整个集群的速率，默认为 false，即每个节点各自的速率
+     * <p>
+     * 为 true 时每个节点的速率为 {@code rate / 存活节点数}，节点数通过 Redis 心跳发现，
+     * 需要开启 {@code rate-limiter.cluster.enabled}，否则视为单节点。
+     * 配置了优先级预留时不生效。
+     *
+     * @return clusterShared
+     */
+    boolean clusterShared() default false;
+
+    /**
+     * 限流规则的生效方式，默认为 {@link LimitMode#ENFORCE}
+     * <p>
+     * 设置为 {@link LimitMode#SHADOW} 时请求始终放行，在请求线程上以零超时、{@code shadow:} 前缀的独立限流器计算限流结果，
+     * 结果记录到 {@code rate.limiter.requests} 指标，只增加一次本地令牌桶判定的开销。
+     *
+     * @return mode
+     */
+    LimitMode mode() default LimitMode.ENFORCE;
+
+    /**
+     * 限流的纬度，默认为 {@link LimitType#METHOD}，即同一个方法的所有请求共享 {@link #rate()}
+     * <p>
+     * 设置为 {@link LimitType#IP} 时每个请求方 IP 各自享有 {@link #rate()}，限流状态保存在堆外的限流表中，
+     * 此时 {@link #criticalReserve()}、{@link #normalReserve()} 与 {@link #clusterShared()} 不生效。
+     *
+     * @return limitType
+     */
+    LimitType limitType() default LimitType.METHOD;
+
 }
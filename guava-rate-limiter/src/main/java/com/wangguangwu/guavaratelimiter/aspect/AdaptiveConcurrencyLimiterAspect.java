@@ -0,0 +1,66 @@
+package com.wangguangwu.guavaratelimiter.aspect;
+
+import com.wangguangwu.guavaratelimiter.annotation.AdaptiveConcurrencyLimiter;
+import com.wangguangwu.guavaratelimiter.component.ConcurrencyLimiterComponent;
+import com.wangguangwu.guavaratelimiter.component.GradientConcurrencyLimit;
+import com.wangguangwu.guavaratelimiter.util.FallbackUtil;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+/**
+ * 实现自适应并发限流注解的切面。
+ * <p>
+ * 在 {@code joinPoint.proceed()} 前后获取和释放并发许可，并把方法的执行耗时交给
+ * {@link GradientConcurrencyLimit} 用于调整并发上限。
+ * </p>
+ *
+ * @author wangguangwu
+ * @see AdaptiveConcurrencyLimiter
+ * @see ConcurrencyLimiterComponent
+ */
+@Aspect
+@Component
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdaptiveConcurrencyLimiterAspect {
+
+    @Resource
+    private ConcurrencyLimiterComponent concurrencyLimiterComponent;
+
+    @Pointcut("@annotation(adaptiveConcurrencyLimiter)")
+    public void pointcut(AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
+    }
+
+    @Around(value = "pointcut(adaptiveConcurrencyLimiter)", argNames = "joinPoint,adaptiveConcurrencyLimiter")
+    public Object around(ProceedingJoinPoint joinPoint, AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) throws Throwable {
+        // 获取类名称 + 方法名称
+        String className = joinPoint.getSignature().getDeclaringTypeName();
+        String methodName = joinPoint.getSignature().getName();
+        String key = className + "." + methodName;
+
+        GradientConcurrencyLimit limit = concurrencyLimiterComponent.getLimit(key,
+                adaptiveConcurrencyLimiter.initialLimit(), adaptiveConcurrencyLimiter.minLimit(),
+                adaptiveConcurrencyLimiter.maxLimit(), adaptiveConcurrencyLimiter.windowMillis());
+        if (!limit.tryAcquire()) {
+            log.info("并发数已达上限 {}，请求被拒绝", limit.getLimit());
+            FallbackUtil.fallback();
+            return null;
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            limit.release(System.nanoTime() - start);
+            return result;
+        } catch (Throwable e) {
+            limit.releaseWithoutSample();
+            throw e;
+        }
+    }
+}
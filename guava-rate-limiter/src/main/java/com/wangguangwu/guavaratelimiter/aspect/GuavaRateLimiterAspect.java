@@ -1,27 +1,32 @@
 package com.wangguangwu.guavaratelimiter.aspect;
 
 import com.wangguangwu.guavaratelimiter.annotation.GuavaRateLimiter;
+import com.wangguangwu.guavaratelimiter.component.ClientRateLimiterComponent;
 import com.wangguangwu.guavaratelimiter.component.RateLimiterComponent;
+import com.wangguangwu.guavaratelimiter.enums.LimitMode;
+import com.wangguangwu.guavaratelimiter.enums.LimitType;
+import com.wangguangwu.guavaratelimiter.enums.TrafficPriority;
+import com.wangguangwu.guavaratelimiter.ipfilter.ClientIpResolver;
+import com.wangguangwu.guavaratelimiter.metrics.RateLimitMetrics;
+import com.wangguangwu.guavaratelimiter.priority.PriorityResolver;
+import com.wangguangwu.guavaratelimiter.util.FallbackUtil;
 import jakarta.annotation.Resource;
-import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Objects;
 
 /**
  * 实现自定义限流注解的切面。
  * <p>
  * 这个切面类使用 {@link RateLimiterComponent} 来控制请求的速率。
  * 如果请求的速率超过了限制，则会抛出 {@link RuntimeException}。
+ * 影子模式下只以零超时计算并记录限流结果，始终放行请求。
+ * 按 IP 限流时由 {@link ClientRateLimiterComponent} 为每个请求方 IP 单独限流。
+ * 仅在 Servlet 应用中生效，WebFlux 应用由 {@link ReactiveGuavaRateLimiterAspect} 处理。
  * </p>
  *
  * @author wangguangwu
@@ -31,11 +36,29 @@ import java.util.Objects;
 @Aspect
 @Component
 @Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GuavaRateLimiterAspect {
 
+    /**
+     * 影子模式限流器的键前缀，与生效的限流器相互独立
+     */
+    private static final String SHADOW_PREFIX = "shadow:";
+
     @Resource
     private RateLimiterComponent rateLimiterComponent;
 
+    @Resource
+    private ClientRateLimiterComponent clientRateLimiterComponent;
+
+    @Resource
+    private PriorityResolver priorityResolver;
+
+    @Resource
+    private ClientIpResolver clientIpResolver;
+
+    @Resource
+    private RateLimitMetrics rateLimitMetrics;
+
     @Pointcut("@annotation(guavaRateLimiter)")
     public void pointcut(GuavaRateLimiter guavaRateLimiter) {
     }
@@ -51,8 +74,14 @@ public class GuavaRateLimiterAspect {
         double rate = guavaRateLimiter.rate();
         int timeout = guavaRateLimiter.timeout();
 
+        if (guavaRateLimiter.mode() == LimitMode.SHADOW) {
+            rateLimitMetrics.record(key, LimitMode.SHADOW, tryAcquire(SHADOW_PREFIX + key, rate, 0, guavaRateLimiter));
+            return joinPoint.proceed();
+        }
+
         // 判断客户端获取令牌是否超时
-        boolean tryAcquire = rateLimiterComponent.tryAcquire(key, rate, timeout);
+        boolean tryAcquire = tryAcquire(key, rate, timeout, guavaRateLimiter);
+        rateLimitMetrics.record(key, LimitMode.ENFORCE, tryAcquire);
         if (!tryAcquire) {
             // 服务降级
             fallback();
@@ -64,21 +93,28 @@ public class GuavaRateLimiterAspect {
         return joinPoint.proceed();
     }
 
+    /**
+     * 按 IP 限流时使用堆外限流表，配置了优先级预留时按请求优先级获取令牌，否则直接使用 Guava 限流器。
+     */
+    private boolean tryAcquire(String key, double rate, int timeout, GuavaRateLimiter guavaRateLimiter) {
+        if (guavaRateLimiter.limitType() == LimitType.IP) {
+            return clientRateLimiterComponent.tryAcquire(key, clientIpResolver.resolve(), rate, timeout);
+        }
+        double criticalReserve = guavaRateLimiter.criticalReserve();
+        double normalReserve = guavaRateLimiter.normalReserve();
+        if (criticalReserve <= 0 && normalReserve <= 0) {
+            return guavaRateLimiter.clusterShared()
+                    ? rateLimiterComponent.tryAcquireShared(key, rate, timeout)
+                    : rateLimiterComponent.tryAcquire(key, rate, timeout);
+        }
+        TrafficPriority priority = priorityResolver.resolve();
+        return rateLimiterComponent.tryAcquire(key, rate, timeout, priority, criticalReserve, normalReserve);
+    }
+
     /**
      * 降级处理
      */
     public void fallback() {
-        HttpServletResponse response = ((ServletRequestAttributes)
-                Objects.requireNonNull(RequestContextHolder.getRequestAttributes())).getResponse();
-        if (response != null) {
-            response.setHeader("Content-type", "text/html;charset=UTF-8");
-            try (PrintWriter writer = response.getWriter()) {
-                log.info("服务出错，请稍后重试");
-                writer.println("服务出错，请稍后重试");
-                writer.flush();
-            } catch (IOException e) {
-                log.error("服务降级: {}", e.getMessage(), e);
-            }
-        }
+        FallbackUtil.fallback();
     }
 }
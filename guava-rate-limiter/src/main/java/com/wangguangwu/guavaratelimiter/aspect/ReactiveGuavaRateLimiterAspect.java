@@ -0,0 +1,155 @@
+package com.wangguangwu.guavaratelimiter.aspect;
+
+import com.wangguangwu.guavaratelimiter.annotation.GuavaRateLimiter;
+import com.wangguangwu.guavaratelimiter.component.ClientRateLimiterComponent;
+import com.wangguangwu.guavaratelimiter.component.RateLimiterComponent;
+import com.wangguangwu.guavaratelimiter.enums.LimitMode;
+import com.wangguangwu.guavaratelimiter.enums.LimitType;
+import com.wangguangwu.guavaratelimiter.enums.TrafficPriority;
+import com.wangguangwu.guavaratelimiter.ipfilter.ClientIpResolver;
+import com.wangguangwu.guavaratelimiter.metrics.RateLimitMetrics;
+import com.wangguangwu.guavaratelimiter.priority.PriorityResolver;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 实现自定义限流注解的响应式切面。
+ * <p>
+ * 只处理返回值为 {@link Mono} 或 {@link Flux} 的方法。每次只以零超时尝试获取令牌，
+ * 获取失败且未超过 {@link GuavaRateLimiter#timeout()} 时，通过 {@link Mono#delay(Duration)} 间隔一个令牌的时间后重试，
+ * 不会阻塞事件循环线程。超时仍未获取到令牌时以 429 状态码的 {@link ResponseStatusException} 结束。
+ * 影子模式下只以零超时计算并记录限流结果，始终放行请求。
+ * </p>
+ *
+ * @author wangguangwu
+ * @see RateLimiterComponent
+ * @see GuavaRateLimiter
+ */
+@Aspect
+@Component
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGuavaRateLimiterAspect {
+
+    /**
+     * 影子模式限流器的键前缀，与生效的限流器相互独立
+     */
+    private static final String SHADOW_PREFIX = "shadow:";
+
+    @Resource
+    private RateLimiterComponent rateLimiterComponent;
+
+    @Resource
+    private ClientRateLimiterComponent clientRateLimiterComponent;
+
+    @Resource
+    private PriorityResolver priorityResolver;
+
+    @Resource
+    private ClientIpResolver clientIpResolver;
+
+    @Resource
+    private RateLimitMetrics rateLimitMetrics;
+
+    @Pointcut("@annotation(guavaRateLimiter)")
+    public void pointcut(GuavaRateLimiter guavaRateLimiter) {
+    }
+
+    @Around(value = "pointcut(guavaRateLimiter)", argNames = "joinPoint,guavaRateLimiter")
+    public Object around(ProceedingJoinPoint joinPoint, GuavaRateLimiter guavaRateLimiter) throws Throwable {
+        // 获取类名称 + 方法名称
+        String className = joinPoint.getSignature().getDeclaringTypeName();
+        String methodName = joinPoint.getSignature().getName();
+        String key = className + "." + methodName;
+
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (Flux.class.isAssignableFrom(returnType)) {
+            return admit(key, guavaRateLimiter).thenMany(Flux.defer(() -> proceed(joinPoint)));
+        }
+        if (Mono.class.isAssignableFrom(returnType)) {
+            return admit(key, guavaRateLimiter).then(Mono.defer(() -> Mono.from(proceed(joinPoint))));
+        }
+        log.warn("响应式限流只支持返回 Mono 或 Flux 的方法，跳过限流: {}", joinPoint.getSignature());
+        return joinPoint.proceed();
+    }
+
+    /**
+     * 获取令牌，获取成功时正常完成，超时未获取到时以错误结束。
+     */
+    private Mono<Void> admit(String key, GuavaRateLimiter guavaRateLimiter) {
+        double rate = guavaRateLimiter.rate();
+        double criticalReserve = guavaRateLimiter.criticalReserve();
+        double normalReserve = guavaRateLimiter.normalReserve();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        boolean shadow = guavaRateLimiter.mode() == LimitMode.SHADOW;
+        String limiterKey = shadow ? SHADOW_PREFIX + key : key;
+
+        return Mono.deferContextual(context -> {
+            BooleanSupplier tryAcquire;
+            if (guavaRateLimiter.limitType() == LimitType.IP) {
+                String ip = ServerWebExchangeContextFilter.getExchange(context)
+                        .map(exchange -> clientIpResolver.resolve(exchange.getRequest()))
+                        .orElse(null);
+                tryAcquire = () -> clientRateLimiterComponent.reserve(limiterKey, ip, rate, 0) >= 0;
+            } else if (criticalReserve <= 0 && normalReserve <= 0) {
+                tryAcquire = guavaRateLimiter.clusterShared()
+                        ? () -> rateLimiterComponent.tryAcquireShared(limiterKey, rate, 0)
+                        : () -> rateLimiterComponent.tryAcquire(limiterKey, rate, 0);
+            } else {
+                TrafficPriority priority = ServerWebExchangeContextFilter.getExchange(context)
+                        .map(priorityResolver::resolve)
+                        .orElse(TrafficPriority.NORMAL);
+                tryAcquire = () -> rateLimiterComponent.tryAcquire(limiterKey, rate, 0, priority, criticalReserve, normalReserve);
+            }
+            if (shadow) {
+                rateLimitMetrics.record(key, LimitMode.SHADOW, tryAcquire.getAsBoolean());
+                return Mono.empty();
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(guavaRateLimiter.timeout());
+            return attempt(key, tryAcquire, deadline, intervalNanos);
+        });
+    }
+
+    private Mono<Void> attempt(String key, BooleanSupplier tryAcquire, long deadline, long intervalNanos) {
+        return Mono.defer(() -> {
+            if (tryAcquire.getAsBoolean()) {
+                log.info("获取令牌成功，请求执行");
+                rateLimitMetrics.record(key, LimitMode.ENFORCE, true);
+                return Mono.empty();
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                rateLimitMetrics.record(key, LimitMode.ENFORCE, false);
+                log.info("服务出错，请稍后重试");
+                return Mono.error(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "服务出错，请稍后重试"));
+            }
+            return Mono.delay(Duration.ofNanos(Math.min(intervalNanos, remaining)))
+                    .then(attempt(key, tryAcquire, deadline, intervalNanos));
+        });
+    }
+
+    private static Publisher<?> proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return (Publisher<?>) joinPoint.proceed();
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.wangguangwu.guavaratelimiter.cluster;
+
+/**
+ * 集群节点数提供者。
+ * <p>
+ * 按集群共享速率限流时，每个节点的速率为 {@code 集群速率 / 节点数}。
+ * 获取令牌时只读取本地缓存的节点数，不访问任何外部存储。
+ * </p>
+ *
+ * @author wangguangwu
+ * @see RedisNodeCountProvider
+ * @see StaticNodeCountProvider
+ */
+public interface NodeCountProvider {
+
+    /**
+     * 当前存活的节点数，至少为 1。
+     *
+     * @return 节点数
+     */
+    int getNodeCount();
+
+}
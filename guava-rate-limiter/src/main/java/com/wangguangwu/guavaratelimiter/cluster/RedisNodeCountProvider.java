@@ -0,0 +1,111 @@
+package com.wangguangwu.guavaratelimiter.cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Redis 心跳的节点数提供者。
+ * <p>
+ * 每个节点以自身标识为成员、当前时间为分数，定期写入同一个有序集合；
+ * 分数早于 {@code 当前时间 - 过期时间} 的成员视为已下线并被移除，剩余成员数即为存活节点数。
+ * 节点之间不需要互相通信，只依赖这一个 Redis 键。当前时间取自 Redis 的 {@code TIME} 命令，
+ * 节点之间的时钟偏差不会导致存活节点被误删或下线节点迟迟不被清理。
+ * </p>
+ * <p>
+ * 心跳失败时保留上一次的节点数，Redis 不可用不会影响获取令牌。
+ * 通过 {@code rate-limiter.cluster.enabled=true} 开启。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "rate-limiter.cluster", name = "enabled", havingValue = "true")
+public class RedisNodeCountProvider implements NodeCountProvider {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${rate-limiter.cluster.key:guava-rate-limiter:nodes}")
+    private String key;
+
+    @Value("${rate-limiter.cluster.heartbeat-interval-ms:1000}")
+    private long heartbeatIntervalMillis;
+
+    @Value("${rate-limiter.cluster.node-timeout-ms:5000}")
+    private long nodeTimeoutMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile int nodeCount = 1;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 立即发送一次心跳，并启动定期心跳任务。
+     */
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limiter-cluster-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止心跳，并从节点集合中移除自身，让其他节点尽快提高各自的速率。
+     */
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        try {
+            stringRedisTemplate.opsForZSet().remove(key, nodeId);
+        } catch (Exception e) {
+            log.warn("移除集群节点心跳失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 写入本节点的心跳，清理已下线的节点，并刷新节点数。
+     */
+    void heartbeat() {
+        try {
+            Long now = stringRedisTemplate.execute(
+                    (RedisCallback<Long>) connection -> connection.serverCommands().time(TimeUnit.MILLISECONDS));
+            if (now == null) {
+                throw new IllegalStateException("无法获取 Redis 时间");
+            }
+            stringRedisTemplate.opsForZSet().add(key, nodeId, now);
+            stringRedisTemplate.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, now - nodeTimeoutMillis);
+            Long count = stringRedisTemplate.opsForZSet().zCard(key);
+            int current = count == null ? 1 : (int) Math.max(1, count);
+            if (current != nodeCount) {
+                log.info("集群节点数变化: {} -> {}", nodeCount, current);
+                nodeCount = current;
+            }
+        } catch (Exception e) {
+            log.warn("集群节点心跳失败，沿用节点数 {}: {}", nodeCount, e.getMessage());
+        }
+    }
+}
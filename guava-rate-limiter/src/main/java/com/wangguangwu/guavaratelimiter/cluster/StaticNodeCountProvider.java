@@ -0,0 +1,20 @@
+package com.wangguangwu.guavaratelimiter.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 未开启集群节点发现时使用的节点数提供者，始终视为单节点。
+ *
+ * @author wangguangwu
+ */
+@Component
+@ConditionalOnProperty(prefix = "rate-limiter.cluster", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class StaticNodeCountProvider implements NodeCountProvider {
+
+    @Override
+    public int getNodeCount() {
+        return 1;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.wangguangwu.guavaratelimiter.component;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按客户端限流的组件。
+ * <p>
+ * 所有客户端的限流状态保存在同一张 {@link OffHeapRateTable} 中，堆内不随客户端数量增长。
+ * 表在启动时按 {@code rate-limiter.client-table.capacity} 一次性分配，每个槽位 16 字节，
+ * 容量较大时需要相应调大 {@code -XX:MaxDirectMemorySize}。
+ * </p>
+ * <p>
+ * 无法获取客户端标识的请求直接拒绝，与 {@code distributed-rate-limiter} 的过滤器一致；
+ * 不把它们计入同一个共享的令牌桶，否则一个配置错误的代理就会让所有这类请求相互限流。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+@Component
+public class ClientRateLimiterComponent {
+
+    @Value("${rate-limiter.client-table.capacity:1048576}")
+    private int capacity;
+
+    @Value("${rate-limiter.client-table.max-probe:16}")
+    private int maxProbe;
+
+    private OffHeapRateTable table;
+
+    /**
+     * 分配堆外限流表。
+     */
+    @PostConstruct
+    public void init() {
+        table = new OffHeapRateTable(capacity, maxProbe);
+        log.info("按客户端限流表已分配，槽位数 {}，堆外内存 {} MB", capacity, capacity * 16L >> 20);
+    }
+
+    /**
+     * 尝试为客户端获取一个令牌，需要等待时在当前线程上等待。
+     *
+     * @param key     限流键
+     * @param client  客户端标识，例如 IP，为空时拒绝
+     * @param rate    每个客户端每秒的请求数
+     * @param timeout 等待令牌的超时时间，单位毫秒
+     * @return 获取成功返回 true
+     */
+    public boolean tryAcquire(String key, String client, double rate, int timeout) {
+        long waitNanos = reserve(key, client, rate, timeout);
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            Uninterruptibles.sleepUninterruptibly(waitNanos, TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+
+    /**
+     * 为客户端预约一个令牌，不等待。
+     *
+     * @param key     限流键
+     * @param client  客户端标识，例如 IP，为空时拒绝
+     * @param rate    每个客户端每秒的请求数
+     * @param timeout 允许等待令牌的最长时间，单位毫秒
+     * @return 需要等待的纳秒数；超过等待上限或无法获取客户端标识时返回 -1
+     */
+    public long reserve(String key, String client, double rate, int timeout) {
+        if (client == null || client.isBlank()) {
+            log.warn("无法获取客户端标识，拒绝按客户端限流的请求: {}", key);
+            return -1;
+        }
+        return table.reserve(OffHeapRateTable.hash(key, client), rate, TimeUnit.MILLISECONDS.toNanos(timeout));
+    }
+
+    /**
+     * 因限流表没有可用槽位而直接放行的请求数。
+     *
+     * @return 放行的请求数
+     */
+    public long overflowCount() {
+        return table.overflowCount();
+    }
+}
@@ -0,0 +1,28 @@
+package com.wangguangwu.guavaratelimiter.component;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 自适应并发限流组件。
+ * <p>
+ * 为每一个接口维护自己的 {@link GradientConcurrencyLimit}。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Component
+public class ConcurrencyLimiterComponent {
+
+    private final ConcurrentHashMap<String, GradientConcurrencyLimit> limitMap = new ConcurrentHashMap<>();
+
+    public GradientConcurrencyLimit getLimit(String key, int initialLimit, int minLimit, int maxLimit, long windowMillis) {
+        GradientConcurrencyLimit limit = limitMap.get(key);
+        if (limit != null) {
+            return limit;
+        }
+        return limitMap.computeIfAbsent(key,
+                k -> new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, windowMillis));
+    }
+}
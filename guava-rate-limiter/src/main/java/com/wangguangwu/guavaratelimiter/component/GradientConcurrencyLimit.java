@@ -0,0 +1,181 @@
+package com.wangguangwu.guavaratelimiter.component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于耗时梯度的自适应并发上限。
+ * <p>
+ * 参考 Gradient 算法：维护一个长期平均耗时作为基线，每个采样窗口结束时用窗口内的平均耗时与基线比较，
+ * 得到梯度 {@code gradient = tolerance × longRtt / shortRtt}，并据此调整并发上限：
+ * {@code newLimit = limit × gradient + sqrt(limit)}。耗时升高时梯度小于 1，上限收紧；
+ * 耗时正常时额外的 {@code sqrt(limit)} 让上限逐步放宽。
+ * </p>
+ * <p>
+ * 并发计数通过 CAS 维护，采样使用 {@link LongAdder} 累加，只有抢到窗口切换的线程才会计算新的上限，
+ * 获取与释放许可都不加锁。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class GradientConcurrencyLimit {
+
+    /**
+     * 允许的耗时波动倍数，窗口耗时不超过基线的该倍数时不收紧上限
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * 单个窗口内上限的最大收紧比例
+     */
+    private static final double MIN_GRADIENT = 0.5;
+
+    /**
+     * 上限的平滑系数
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * 长期平均耗时的衰减系数
+     */
+    private static final double LONG_RTT_DECAY = 0.05;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long windowNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final LongAdder rttSum = new LongAdder();
+
+    private final LongAdder rttCount = new LongAdder();
+
+    private final AtomicInteger maxInflight = new AtomicInteger();
+
+    private final AtomicLong windowEnd;
+
+    private volatile double estimatedLimit;
+
+    private volatile int limit;
+
+    /**
+     * 长期平均耗时，只由抢到窗口切换的线程写入，不同窗口的切换线程可能不同，需要保证可见性
+     */
+    private volatile double longRtt;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long windowMillis) {
+        this(initialLimit, minLimit, maxLimit, windowMillis, System::nanoTime);
+    }
+
+    GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long windowMillis, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || windowMillis <= 0) {
+            throw new IllegalArgumentException("并发上限配置不合法");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.nanoClock = nanoClock;
+        this.estimatedLimit = Math.min(maxLimit, Math.max(minLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.windowEnd = new AtomicLong(nanoClock.getAsLong() + windowNanos);
+    }
+
+    /**
+     * 尝试获取一个并发许可。
+     *
+     * @return 当前并发数未达到上限时返回 true
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                maxInflight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放许可并记录本次执行耗时。
+     *
+     * @param rttNanos 执行耗时，单位纳秒
+     */
+    public void release(long rttNanos) {
+        inflight.decrementAndGet();
+        rttSum.add(rttNanos);
+        rttCount.increment();
+        maybeUpdateLimit();
+    }
+
+    /**
+     * 释放许可但不记录耗时，用于执行异常等不代表真实处理能力的情况。
+     */
+    public void releaseWithoutSample() {
+        inflight.decrementAndGet();
+        maybeUpdateLimit();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private void maybeUpdateLimit() {
+        long now = nanoClock.getAsLong();
+        long end = windowEnd.get();
+        if (now - end < 0 || !windowEnd.compareAndSet(end, now + windowNanos)) {
+            return;
+        }
+        long count = rttCount.sumThenReset();
+        long sum = rttSum.sumThenReset();
+        int peakInflight = maxInflight.getAndSet(inflight.get());
+        if (count == 0) {
+            return;
+        }
+        updateLimit((double) sum / count, peakInflight);
+    }
+
+    /**
+     * 根据窗口内的平均耗时调整并发上限，只由抢到窗口切换的线程调用。
+     */
+    private void updateLimit(double shortRtt, int peakInflight) {
+        double baseline = longRtt;
+        if (baseline == 0) {
+            baseline = shortRtt;
+        } else {
+            baseline = baseline * (1 - LONG_RTT_DECAY) + shortRtt * LONG_RTT_DECAY;
+        }
+        // 耗时恢复后让基线尽快回落，避免基线长期偏高导致上限过度放宽
+        if (baseline > shortRtt * 2) {
+            baseline = baseline * 0.95;
+        }
+        longRtt = baseline;
+
+        // 流量不足以压满上限时，耗时无法反映处理能力，不调整上限
+        double current = estimatedLimit;
+        if (peakInflight < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * baseline / shortRtt));
+        double newLimit = current * gradient + Math.sqrt(current);
+        newLimit = current * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+        estimatedLimit = newLimit;
+        limit = (int) newLimit;
+    }
+}
@@ -0,0 +1,240 @@
+package com.wangguangwu.guavaratelimiter.component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 堆外的按客户端限流表。
+ * <p>
+ * 按 IP 等客户端维度限流时，活跃的客户端可能达到百万级，为每个客户端创建一个 Guava 限流器会产生大量小对象，
+ * 给 GC 带来压力。这里把所有客户端的限流状态放在一块堆外内存中，组成一张开放寻址的哈希表，
+ * 每个槽位固定 16 字节：8 字节的键哈希值和 8 字节的理论到达时间（GCRA 算法的 TAT），堆内不随客户端数量增长。
+ * </p>
+ * <p>
+ * 限流采用 GCRA 算法，等价于容量为一秒令牌数的令牌桶，与 Guava 的 {@code SmoothBursty} 一致，
+ * 不同的是新客户端的令牌桶是满的。槽位的读写都通过 {@link VarHandle} 的 CAS 完成，不加锁。
+ * </p>
+ * <p>
+ * 槽位不会被清空，只会被复用：理论到达时间早于当前时间的客户端，令牌桶已经补满，与从未出现过的客户端状态相同，
+ * 新的客户端可以直接占用它的槽位，因此不需要后台清理线程。探测范围内没有可用槽位时直接放行并计数，
+ * 表的容量应当按活跃客户端数量的两倍左右配置。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class OffHeapRateTable {
+
+    /**
+     * 表的最大槽位数，对应 1GB 的堆外内存
+     */
+    public static final int MAX_CAPACITY = 1 << 26;
+
+    private static final int SLOT_BYTES = 16;
+
+    private static final int TAT_OFFSET = 8;
+
+    /**
+     * 空槽位的键，计算出的哈希值不会为 0
+     */
+    private static final long EMPTY = 0;
+
+    /**
+     * 占用槽位时 CAS 失败的最大重试次数
+     */
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+
+    private final int mask;
+
+    private final int maxProbe;
+
+    private final LongSupplier nanoClock;
+
+    /**
+     * 时间基准，保证表内记录的时间始终为正数，0 表示令牌桶是满的
+     */
+    private final long baseNanos;
+
+    private final LongAdder overflows = new LongAdder();
+
+    public OffHeapRateTable(int capacity, int maxProbe) {
+        this(capacity, maxProbe, System::nanoTime);
+    }
+
+    OffHeapRateTable(int capacity, int maxProbe, LongSupplier nanoClock) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("限流表容量必须是 2 的幂且不超过 " + MAX_CAPACITY);
+        }
+        if (maxProbe <= 0 || maxProbe > capacity) {
+            throw new IllegalArgumentException("最大探测次数必须大于 0 且不超过容量");
+        }
+        this.buffer = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        this.mask = capacity - 1;
+        this.maxProbe = maxProbe;
+        this.nanoClock = nanoClock;
+        this.baseNanos = nanoClock.getAsLong() - 1;
+    }
+
+    /**
+     * 计算限流键与客户端组合后的哈希值，作为表中的键。
+     * <p>
+     * 64 位 FNV-1a 加 splitmix64 的混淆，不同客户端发生碰撞的概率可以忽略，碰撞时两者共享同一个令牌桶。
+     * </p>
+     *
+     * @param key    限流键
+     * @param client 客户端标识，例如 IP
+     * @return 非 0 的哈希值
+     */
+    public static long hash(CharSequence key, CharSequence client) {
+        long h = 0xcbf29ce484222325L;
+        h = fnv(h, key);
+        h = (h ^ '|') * 0x100000001b3L;
+        h = fnv(h, client);
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        h = h ^ (h >>> 31);
+        return h == EMPTY ? 1 : h;
+    }
+
+    private static long fnv(long h, CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * 为指定客户端预约一个令牌。
+     *
+     * @param keyHash      {@link #hash(CharSequence, CharSequence)} 计算出的哈希值
+     * @param rate         每秒的请求数
+     * @param maxWaitNanos 允许等待令牌的最长时间，单位纳秒
+     * @return 需要等待的纳秒数，0 表示立即放行；等待时间超过上限时返回 -1，此时不消耗令牌
+     */
+    public long reserve(long keyHash, double rate, long maxWaitNanos) {
+        long interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+        long burst = (long) (Math.max(1, rate) * interval);
+        long now = nanoClock.getAsLong() - baseNanos;
+        int slot = findSlot(keyHash, now);
+        if (slot < 0) {
+            // 探测范围内没有可用槽位，放行请求，避免限流表故障影响正常流量
+            overflows.increment();
+            return 0;
+        }
+        int tatOffset = slot * SLOT_BYTES + TAT_OFFSET;
+        while (true) {
+            long tat = (long) LONGS.getVolatile(buffer, tatOffset);
+            long newTat = Math.max(tat, now) + interval;
+            long wait = newTat - burst - now;
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (LONGS.compareAndSet(buffer, tatOffset, tat, newTat)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    /**
+     * 查找客户端所在的槽位，不存在时占用一个空槽位或令牌桶已补满的槽位。
+     *
+     * @return 槽位下标，探测范围内没有可用槽位时返回 -1
+     */
+    private int findSlot(long keyHash, long now) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            int start = (int) keyHash & mask;
+            int candidate = -1;
+            long candidateKey = EMPTY;
+            long candidateTat = 0;
+            for (int i = 0; i < maxProbe; i++) {
+                int slot = (start + i) & mask;
+                long key = (long) LONGS.getVolatile(buffer, slot * SLOT_BYTES);
+                if (key == keyHash) {
+                    return slot;
+                }
+                if (key == EMPTY) {
+                    // 槽位不会被清空，空槽位之后不可能再有这个客户端
+                    if (candidate < 0) {
+                        candidate = slot;
+                        candidateKey = EMPTY;
+                        candidateTat = 0;
+                    }
+                    break;
+                }
+                if (candidate < 0) {
+                    long tat = (long) LONGS.getVolatile(buffer, slot * SLOT_BYTES + TAT_OFFSET);
+                    if (tat <= now) {
+                        candidate = slot;
+                        candidateKey = key;
+                        candidateTat = tat;
+                    }
+                }
+            }
+            if (candidate < 0) {
+                return -1;
+            }
+            if (claim(candidate, candidateKey, candidateTat, keyHash)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 占用槽位：先把理论到达时间重置为 0，原客户端在此期间有新请求时 CAS 失败，避免抢走仍在限流的槽位；
+     * 再把键替换为新的客户端。
+     */
+    private boolean claim(int slot, long expectedKey, long expectedTat, long keyHash) {
+        int keyOffset = slot * SLOT_BYTES;
+        if (expectedKey != EMPTY
+                && !LONGS.compareAndSet(buffer, keyOffset + TAT_OFFSET, expectedTat, 0L)) {
+            return false;
+        }
+        return LONGS.compareAndSet(buffer, keyOffset, expectedKey, keyHash);
+    }
+
+    /**
+     * 统计令牌桶尚未补满的客户端数量，需要遍历整张表，只用于监控与测试。
+     *
+     * @return 活跃的客户端数量
+     */
+    public int activeCount() {
+        long now = nanoClock.getAsLong() - baseNanos;
+        int count = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            long key = (long) LONGS.getVolatile(buffer, slot * SLOT_BYTES);
+            long tat = (long) LONGS.getVolatile(buffer, slot * SLOT_BYTES + TAT_OFFSET);
+            if (key != EMPTY && tat > now) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 因探测范围内没有可用槽位而直接放行的请求数。
+     *
+     * @return 放行的请求数
+     */
+    public long overflowCount() {
+        return overflows.sum();
+    }
+
+    /**
+     * 表的槽位数。
+     *
+     * @return 槽位数
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,131 @@
+package com.wangguangwu.guavaratelimiter.component;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.wangguangwu.guavaratelimiter.enums.TrafficPriority;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 按优先级预留容量的令牌桶。
+ * <p>
+ * 令牌以 {@code rate} 的速率补充，桶容量为一秒的令牌数，与 Guava 的 {@code SmoothBursty} 一致。
+ * 每个优先级都有一条水位线：只有桶内令牌在取走一个之后仍不低于水位线时，该优先级的请求才能通过。
+ * 水位线等于所有更高优先级的预留令牌数之和，因此关键流量可以使用整个桶，而低优先级流量无法动用为高优先级预留的令牌。
+ * </p>
+ * <p>
+ * 某个优先级在最近一秒内没有请求时视为空闲，其预留的令牌不计入水位线，低优先级流量可以借用。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class PriorityTokenBucket {
+
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final TrafficPriority[] PRIORITIES = TrafficPriority.values();
+
+    private final double rate;
+
+    private final double capacity;
+
+    /**
+     * 各优先级预留的令牌数
+     */
+    private final double[] reserved = new double[PRIORITIES.length];
+
+    /**
+     * 各优先级最近一次请求的时间
+     */
+    private final long[] lastSeen = new long[PRIORITIES.length];
+
+    private final boolean[] seen = new boolean[PRIORITIES.length];
+
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    public PriorityTokenBucket(double rate, double criticalReserve, double normalReserve) {
+        this(rate, criticalReserve, normalReserve, System::nanoTime);
+    }
+
+    PriorityTokenBucket(double rate, double criticalReserve, double normalReserve, LongSupplier nanoClock) {
+        if (rate <= 0 || criticalReserve < 0 || normalReserve < 0 || criticalReserve + normalReserve > 1) {
+            throw new IllegalArgumentException("优先级预留比例不合法");
+        }
+        this.rate = rate;
+        this.capacity = Math.max(1.0, rate);
+        this.reserved[TrafficPriority.CRITICAL.ordinal()] = capacity * criticalReserve;
+        this.reserved[TrafficPriority.NORMAL.ordinal()] = capacity * normalReserve;
+        this.nanoClock = nanoClock;
+        this.lastRefill = nanoClock.getAsLong();
+        // 与 Guava 一致，新建的令牌桶可以立即放行一次请求
+        this.tokens = 1;
+    }
+
+    /**
+     * 尝试获取一个令牌。
+     * <p>
+     * 只有关键流量可以预支未来的令牌，预支后等待令牌补充。低优先级的请求等待时不预支令牌，
+     * 而是在等待后重新检查水位线，否则排队的低优先级请求会把令牌扣到水位线甚至 0 以下，
+     * 随后到达的关键流量只能等待这些欠下的令牌补充，预留的容量形同虚设。
+     * </p>
+     *
+     * @param priority 请求的优先级
+     * @param timeout  等待令牌的超时时间，单位毫秒
+     * @return 获取成功返回 true
+     */
+    public boolean tryAcquire(TrafficPriority priority, int timeout) {
+        long deadline = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                long now = nanoClock.getAsLong();
+                refill(now);
+                lastSeen[priority.ordinal()] = now;
+                seen[priority.ordinal()] = true;
+
+                double floor = floor(priority, now);
+                if (tokens - 1 >= floor) {
+                    tokens -= 1;
+                    return true;
+                }
+                // 等待令牌补充到水位线以上
+                waitNanos = (long) Math.ceil((floor + 1 - tokens) / rate * TimeUnit.SECONDS.toNanos(1));
+                if (now + waitNanos > deadline) {
+                    return false;
+                }
+                if (priority == TrafficPriority.CRITICAL) {
+                    tokens -= 1;
+                }
+            }
+            Uninterruptibles.sleepUninterruptibly(waitNanos, TimeUnit.NANOSECONDS);
+            if (priority == TrafficPriority.CRITICAL) {
+                return true;
+            }
+        }
+    }
+
+    private void refill(long now) {
+        double elapsedSeconds = (double) (now - lastRefill) / TimeUnit.SECONDS.toNanos(1);
+        if (elapsedSeconds > 0) {
+            tokens = Math.min(capacity, tokens + elapsedSeconds * rate);
+            lastRefill = now;
+        }
+    }
+
+    /**
+     * 计算指定优先级的水位线，即所有活跃的更高优先级预留的令牌数之和。
+     */
+    private double floor(TrafficPriority priority, long now) {
+        double floor = 0;
+        for (int i = 0; i < priority.ordinal(); i++) {
+            if (seen[i] && now - lastSeen[i] < IDLE_NANOS) {
+                floor += reserved[i];
+            }
+        }
+        return floor;
+    }
+}
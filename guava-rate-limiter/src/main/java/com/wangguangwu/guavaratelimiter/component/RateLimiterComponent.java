@@ -1,9 +1,15 @@
 package com.wangguangwu.guavaratelimiter.component;
 
 import com.google.common.util.concurrent.RateLimiter;
+import com.wangguangwu.guavaratelimiter.cluster.NodeCountProvider;
+import com.wangguangwu.guavaratelimiter.enums.TrafficPriority;
+import com.wangguangwu.guavaratelimiter.snapshot.LimiterState;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
@@ -23,19 +29,200 @@ public class RateLimiterComponent {
      * <p>
      * 避免并发问题。
      */
-    private final ConcurrentHashMap<String, RateLimiter> rateLimiterMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LimiterEntry> rateLimiterMap = new ConcurrentHashMap<>();
+
+    /**
+     * 按优先级预留容量的令牌桶，与 rateLimiterMap 相互独立。
+     */
+    private final ConcurrentHashMap<String, PriorityTokenBucket> priorityBucketMap = new ConcurrentHashMap<>();
+
+    /**
+     * 从快照恢复、尚未创建限流器的最近一次放行时间，创建限流器时取出。
+     */
+    private final ConcurrentHashMap<String, Long> restoredAcquireMillis = new ConcurrentHashMap<>();
+
+    @Resource
+    private NodeCountProvider nodeCountProvider;
 
     public RateLimiter getRateLimiter(String key, double rate) {
-        return rateLimiterMap.computeIfAbsent(key, k -> RateLimiter.create(rate));
+        return getEntry(key, rate).rateLimiter;
     }
 
     public boolean tryAcquire(String key, double rate, int timeout) {
-        RateLimiter rateLimiter = getRateLimiter(key, rate);
+        return tryAcquire(getEntry(key, rate), timeout);
+    }
+
+    /**
+     * 按集群共享速率获取令牌。
+     * <p>
+     * 本节点的速率为 {@code clusterRate / 节点数}。节点数由 {@link NodeCountProvider} 在后台刷新，
+     * 这里只比较本地缓存的节点数，变化时调整限流器的速率，获取令牌的过程不访问外部存储。
+     * </p>
+     *
+     * @param key         限流键
+     * @param clusterRate 整个集群每秒的请求数
+     * @param timeout     等待令牌的超时时间，单位毫秒
+     * @return 获取成功返回 true
+     */
+    public boolean tryAcquireShared(String key, double clusterRate, int timeout) {
+        int nodeCount = nodeCountProvider.getNodeCount();
+        LimiterEntry entry = getSharedEntry(key, clusterRate, nodeCount);
+        return tryAcquire(entry, timeout);
+    }
+
+    private boolean tryAcquire(LimiterEntry entry, int timeout) {
         try {
-            return rateLimiter.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+            boolean acquired = entry.rateLimiter.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+            if (acquired) {
+                entry.lastAcquireMillis = System.currentTimeMillis();
+            }
+            return acquired;
         } catch (Exception e) {
             log.error("Failed to acquire permission: {}", e.getMessage(), e);
             return false;
         }
     }
+
+    /**
+     * 按请求优先级获取令牌。
+     *
+     * @param key             限流键
+     * @param rate            每秒的请求数
+     * @param timeout         等待令牌的超时时间，单位毫秒
+     * @param priority        请求的优先级
+     * @param criticalReserve 为关键流量预留的容量比例
+     * @param normalReserve   为普通流量预留的容量比例
+     * @return 获取成功返回 true
+     */
+    public boolean tryAcquire(String key, double rate, int timeout, TrafficPriority priority,
+                              double criticalReserve, double normalReserve) {
+        PriorityTokenBucket bucket = priorityBucketMap.computeIfAbsent(key,
+                k -> new PriorityTokenBucket(rate, criticalReserve, normalReserve));
+        return bucket.tryAcquire(priority, timeout);
+    }
+
+    /**
+     * 预先创建限流器，启动时调用，避免第一次请求承担创建的开销。已存在的限流器按配置的速率调整。
+     *
+     * @param key           限流键
+     * @param rate          每秒的请求数，按集群共享速率限流时为整个集群的速率
+     * @param clusterShared 是否按集群共享速率限流
+     * @throws IllegalArgumentException 速率不合法
+     */
+    public void preCreate(String key, double rate, boolean clusterShared) {
+        if (!clusterShared) {
+            getEntry(key, rate);
+            return;
+        }
+        getSharedEntry(key, rate, nodeCountProvider.getNodeCount());
+    }
+
+    /**
+     * 预先创建按优先级预留容量的令牌桶。已存在的令牌桶不会被覆盖。
+     *
+     * @param key             限流键
+     * @param rate            每秒的请求数
+     * @param criticalReserve 为关键流量预留的容量比例
+     * @param normalReserve   为普通流量预留的容量比例
+     * @throws IllegalArgumentException 速率或预留比例不合法
+     */
+    public void preCreate(String key, double rate, double criticalReserve, double normalReserve) {
+        priorityBucketMap.computeIfAbsent(key, k -> new PriorityTokenBucket(rate, criticalReserve, normalReserve));
+    }
+
+    /**
+     * 导出当前所有限流器的状态，用于写入快照。
+     *
+     * @return 限流器状态
+     */
+    public List<LimiterState> snapshot() {
+        List<LimiterState> states = new ArrayList<>(rateLimiterMap.size());
+        rateLimiterMap.forEach((key, entry) ->
+                states.add(new LimiterState(key, entry.rateLimiter.getRate(), entry.lastAcquireMillis)));
+        return states;
+    }
+
+    /**
+     * 根据快照恢复限流器。
+     * <p>
+     * 只恢复最近一次放行的时间，速率始终以注解配置为准，修改注解中的速率后重新部署不会沿用快照中的旧速率。
+     * 恢复的时间在限流器第一次被创建时生效：新建的 Guava 限流器会立即放行一次请求，
+     * 如果最近一次放行距今还不到一个令牌的间隔，说明重启前令牌桶处于耗尽状态，此时预先消耗掉这次免费放行。
+     * 已存在的限流器不受影响。
+     * </p>
+     * <p>
+     * Guava 不公开令牌桶中积攒的令牌数与下一个令牌的可用时间，快照无法恢复它们。
+     * 速率不低于每秒 1 个时，令牌的间隔不超过 1 秒，实际的重启几乎都超过这个间隔，
+     * 重启后的限流器与冷启动相同，最多放行一秒的突发流量；快照只对速率较低的限流器有效。
+     * </p>
+     *
+     * @param state 限流器状态
+     */
+    public void restore(LimiterState state) {
+        if (!rateLimiterMap.containsKey(state.key())) {
+            restoredAcquireMillis.put(state.key(), state.lastAcquireMillis());
+        }
+    }
+
+    private LimiterEntry getEntry(String key, double rate) {
+        LimiterEntry entry = rateLimiterMap.computeIfAbsent(key, k -> newEntry(k, rate));
+        if (entry.configuredRate != rate) {
+            entry.rateLimiter.setRate(rate);
+            entry.configuredRate = rate;
+        }
+        return entry;
+    }
+
+    private LimiterEntry getSharedEntry(String key, double clusterRate, int nodeCount) {
+        LimiterEntry entry = rateLimiterMap.computeIfAbsent(key, k -> {
+            LimiterEntry created = newEntry(k, clusterRate / nodeCount);
+            created.configuredRate = clusterRate;
+            created.nodeCount = nodeCount;
+            return created;
+        });
+        if (entry.nodeCount != nodeCount || entry.configuredRate != clusterRate) {
+            entry.rateLimiter.setRate(clusterRate / nodeCount);
+            entry.configuredRate = clusterRate;
+            entry.nodeCount = nodeCount;
+        }
+        return entry;
+    }
+
+    private LimiterEntry newEntry(String key, double rate) {
+        LimiterEntry entry = new LimiterEntry(RateLimiter.create(rate));
+        entry.configuredRate = rate;
+        Long lastAcquireMillis = restoredAcquireMillis.remove(key);
+        if (lastAcquireMillis != null) {
+            long intervalMillis = (long) Math.ceil(1000 / rate);
+            if (System.currentTimeMillis() - lastAcquireMillis < intervalMillis) {
+                entry.rateLimiter.acquire();
+                entry.lastAcquireMillis = lastAcquireMillis;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * 限流器及其最近一次放行时间。
+     */
+    private static final class LimiterEntry {
+
+        private final RateLimiter rateLimiter;
+
+        private volatile long lastAcquireMillis;
+
+        /**
+         * 配置的速率，按集群共享速率限流时为整个集群的速率，与调用方传入的速率不同时调整限流器
+         */
+        private volatile double configuredRate;
+
+        /**
+         * 按集群共享速率限流时，当前速率对应的节点数，为 0 表示尚未按节点数调整
+         */
+        private volatile int nodeCount;
+
+        private LimiterEntry(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.wangguangwu.guavaratelimiter.config;
+
+import com.wangguangwu.guavaratelimiter.annotation.AdaptiveConcurrencyLimiter;
+import com.wangguangwu.guavaratelimiter.annotation.GuavaRateLimiter;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * 限流相关的 AOT 运行时提示。
+ * <p>
+ * 切面和启动校验在运行时通过反射读取限流注解的属性，构建 GraalVM 原生镜像时需要保留这些注解的元数据。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class RateLimiterRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection()
+                .registerType(GuavaRateLimiter.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+                .registerType(AdaptiveConcurrencyLimiter.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
@@ -1,6 +1,9 @@
 package com.wangguangwu.guavaratelimiter.controller;
 
+import com.wangguangwu.guavaratelimiter.annotation.AdaptiveConcurrencyLimiter;
 import com.wangguangwu.guavaratelimiter.annotation.GuavaRateLimiter;
+import com.wangguangwu.guavaratelimiter.enums.LimitMode;
+import com.wangguangwu.guavaratelimiter.enums.LimitType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -19,4 +22,28 @@ public class ApiController {
     public String action() {
         return "success";
     }
+
+    @GuavaRateLimiter(rate = 10.0, clusterShared = true)
+    @GetMapping("/shared")
+    public String shared() {
+        return "success";
+    }
+
+    @GuavaRateLimiter(rate = 1.0, mode = LimitMode.SHADOW)
+    @GetMapping("/shadow")
+    public String shadow() {
+        return "success";
+    }
+
+    @GuavaRateLimiter(rate = 1.0, limitType = LimitType.IP)
+    @GetMapping("/client")
+    public String client() {
+        return "success";
+    }
+
+    @AdaptiveConcurrencyLimiter(initialLimit = 10, maxLimit = 100)
+    @GetMapping("/adaptive")
+    public String adaptive() {
+        return "success";
+    }
 }
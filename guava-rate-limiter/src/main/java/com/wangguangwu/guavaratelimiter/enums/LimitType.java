@@ -0,0 +1,29 @@
+package com.wangguangwu.guavaratelimiter.enums;
+
+/**
+ * 枚举类，表示限流类型。
+ * <p>
+ * 用于指定限流的纬度。
+ * </p>
+ *
+ * <p>例如：</p>
+ * <ul>
+ *     <li>{@link #METHOD} - 同一个方法的所有请求共享一个限流器。</li>
+ *     <li>{@link #IP} - 同一个方法下每个请求方 IP 各自一个限流器。</li>
+ * </ul>
+ *
+ * @author wangguangwu
+ */
+public enum LimitType {
+
+    /**
+     * 同一个方法的所有请求共享一个限流器。
+     */
+    METHOD,
+
+    /**
+     * 同一个方法下每个请求方 IP 各自一个限流器。
+     */
+    IP
+
+}
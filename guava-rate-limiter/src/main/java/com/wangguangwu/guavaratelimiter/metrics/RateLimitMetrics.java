@@ -0,0 +1,53 @@
+package com.wangguangwu.guavaratelimiter.metrics;
+
+import com.wangguangwu.guavaratelimiter.enums.LimitMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 限流指标。
+ * <p>
+ * 按限流器、生效方式和结果统计请求数，指标名为 {@code rate.limiter.requests}，
+ * 标签 {@code limiter} 为限流器的键（类名.方法名），{@code mode} 为 enforce 或 shadow，{@code result} 为 admitted 或 rejected。
+ * 可通过 {@code /actuator/metrics/rate.limiter.requests} 查看。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Component
+public class RateLimitMetrics {
+
+    private static final String REQUESTS = "rate.limiter.requests";
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 已创建的计数器，避免每次记录都重新构建
+     */
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次限流结果。
+     *
+     * @param limiter  限流器名称
+     * @param mode     生效方式
+     * @param admitted 是否放行
+     */
+    public void record(String limiter, LimitMode mode, boolean admitted) {
+        String result = admitted ? "admitted" : "rejected";
+        String id = limiter + '|' + mode + '|' + result;
+        counters.computeIfAbsent(id, k -> Counter.builder(REQUESTS)
+                        .tag("limiter", limiter)
+                        .tag("mode", mode.name().toLowerCase(Locale.ROOT))
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+}
@@ -0,0 +1,34 @@
+package com.wangguangwu.guavaratelimiter.priority;
+
+import com.wangguangwu.guavaratelimiter.enums.TrafficPriority;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 请求优先级解析器。
+ * <p>
+ * 默认实现为 {@link HeaderPriorityResolver}，可以通过声明 {@code @Primary} 的 Bean 替换为自定义实现，
+ * 例如根据登录用户的套餐等级解析优先级。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public interface PriorityResolver {
+
+    /**
+     * 解析当前请求的优先级。
+     *
+     * @return 当前请求的优先级，不能返回 null
+     */
+    TrafficPriority resolve();
+
+    /**
+     * 解析响应式请求的优先级。
+     *
+     * @param exchange 当前的请求交换对象
+     * @return 请求的优先级，不能返回 null，默认返回 {@link TrafficPriority#NORMAL}
+     */
+    default TrafficPriority resolve(ServerWebExchange exchange) {
+        return TrafficPriority.NORMAL;
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.wangguangwu.guavaratelimiter.snapshot;
+
+import com.wangguangwu.guavaratelimiter.component.RateLimiterComponent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流器快照管理器。
+ * <p>
+ * 启动时从快照文件恢复限流器状态，运行期间定期把 {@link RateLimiterComponent} 的状态写入快照文件，
+ * 关闭时再写入一次，使滚动发布后的节点不会以空闲状态的限流器重新开始放行。
+ * 通过 {@code rate-limiter.snapshot.enabled=true} 开启。
+ * </p>
+ *
+ * @author wangguangwu
+ * @see LimiterSnapshotFile
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "rate-limiter.snapshot", name = "enabled", havingValue = "true")
+public class LimiterSnapshotManager {
+
+    @Resource
+    private RateLimiterComponent rateLimiterComponent;
+
+    @Value("${rate-limiter.snapshot.path:${java.io.tmpdir}/guava-rate-limiter.snapshot}")
+    private Path path;
+
+    @Value("${rate-limiter.snapshot.interval-ms:1000}")
+    private long intervalMillis;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 最近一次写入快照文件的状态，状态未变化时跳过写入
+     */
+    private List<LimiterState> lastWritten;
+
+    /**
+     * 恢复快照并启动定期写入任务。
+     */
+    @PostConstruct
+    public void init() {
+        load();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limiter-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::save, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止定期任务，并写入最后一次快照。
+     */
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        save();
+    }
+
+    /**
+     * 从快照文件恢复限流器，读取失败时以空状态启动。
+     */
+    public void load() {
+        long start = System.nanoTime();
+        try {
+            List<LimiterState> states = LimiterSnapshotFile.read(path);
+            states.forEach(rateLimiterComponent::restore);
+            log.info("从快照恢复 {} 个限流器，耗时 {} ms", states.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            log.warn("读取限流器快照失败，忽略快照: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 将当前限流器状态写入快照文件，与上次写入的状态相同时不写入。
+     */
+    public synchronized void save() {
+        List<LimiterState> states = rateLimiterComponent.snapshot();
+        if (states.equals(lastWritten)) {
+            return;
+        }
+        try {
+            LimiterSnapshotFile.write(path, states);
+            lastWritten = states;
+        } catch (IOException e) {
+            log.error("写入限流器快照失败: {}", e.getMessage(), e);
+        }
+    }
+}
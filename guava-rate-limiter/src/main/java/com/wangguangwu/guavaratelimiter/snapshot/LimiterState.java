@@ -0,0 +1,12 @@
+package com.wangguangwu.guavaratelimiter.snapshot;
+
+/**
+ * 单个限流器的状态快照。
+ *
+ * @param key                限流器的键
+ * @param rate               写入快照时的每秒请求数，仅用于排查，恢复时以注解配置的速率为准
+ * @param lastAcquireMillis  最近一次成功获取令牌的时间戳（毫秒），从未获取过则为 0
+ * @author wangguangwu
+ */
+public record LimiterState(String key, double rate, long lastAcquireMillis) {
+}
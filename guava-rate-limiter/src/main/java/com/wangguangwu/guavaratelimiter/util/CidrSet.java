@@ -0,0 +1,120 @@
+package com.wangguangwu.guavaratelimiter.util;
+
+import com.google.common.net.InetAddresses;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 不可变的 IP 地址段集合，用于判断请求的对端是否属于可信代理、网关等配置的地址。
+ * <p>
+ * 地址通过 {@link InetAddresses#forString(String)} 解析，只接受 IP 字面量，不会触发 DNS 查询；
+ * IPv4 映射的 IPv6 地址按 IPv4 匹配。配置的地址通常只有几条，查询时顺序匹配。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class CidrSet {
+
+    public static final CidrSet EMPTY = new CidrSet(List.of());
+
+    private final List<Cidr> cidrs;
+
+    private CidrSet(List<Cidr> cidrs) {
+        this.cidrs = cidrs;
+    }
+
+    /**
+     * 解析 IP 或 CIDR 列表。
+     *
+     * @param addresses IP 或 CIDR，例如 {@code 10.0.0.0/8}，忽略空白项
+     * @return 地址段集合
+     * @throws IllegalArgumentException 存在格式错误的地址
+     */
+    public static CidrSet parse(List<String> addresses) {
+        List<Cidr> cidrs = new ArrayList<>();
+        for (String address : addresses) {
+            if (address.isBlank()) {
+                continue;
+            }
+            String value = address.trim();
+            int slash = value.indexOf('/');
+            byte[] network = toBytes(slash < 0 ? value : value.substring(0, slash));
+            int bits = network == null ? -1 : network.length * Byte.SIZE;
+            int prefix = bits;
+            if (network != null && slash >= 0) {
+                try {
+                    prefix = Integer.parseInt(value.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    prefix = -1;
+                }
+            }
+            if (network == null || prefix < 0 || prefix > bits) {
+                throw new IllegalArgumentException("IP 地址格式错误: " + address);
+            }
+            cidrs.add(new Cidr(network, prefix));
+        }
+        return cidrs.isEmpty() ? EMPTY : new CidrSet(List.copyOf(cidrs));
+    }
+
+    /**
+     * 判断 IP 地址是否属于集合中的某个地址段。
+     *
+     * @param ip IP 地址，可以为 null
+     * @return 属于时返回 true，无法解析的地址返回 false
+     */
+    public boolean contains(String ip) {
+        if (ip == null || cidrs.isEmpty()) {
+            return false;
+        }
+        byte[] address = toBytes(ip.trim());
+        if (address == null) {
+            return false;
+        }
+        for (Cidr cidr : cidrs) {
+            if (cidr.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 集合是否为空。
+     *
+     * @return 为空时返回 true
+     */
+    public boolean isEmpty() {
+        return cidrs.isEmpty();
+    }
+
+    private static byte[] toBytes(String ip) {
+        if (!InetAddresses.isInetAddress(ip)) {
+            return null;
+        }
+        InetAddress address = InetAddresses.forString(ip);
+        return address.getAddress();
+    }
+
+    private record Cidr(byte[] network, int prefix) {
+
+        private boolean matches(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int full = prefix / Byte.SIZE;
+            for (int i = 0; i < full; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int rest = prefix % Byte.SIZE;
+            if (rest == 0) {
+                return true;
+            }
+            int mask = 0xff << (Byte.SIZE - rest);
+            return (address[full] & mask) == (network[full] & mask);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.wangguangwu.guavaratelimiter.util;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * 限流降级工具类。
+ * <p>
+ * 在请求被限流时，向客户端写出统一的降级提示。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+public final class FallbackUtil {
+
+    private static final String FALLBACK_MESSAGE = "服务出错，请稍后重试";
+
+    // 私有化构造函数，防止实例化工具类
+    private FallbackUtil() {
+    }
+
+    /**
+     * 向当前请求的响应写出降级提示。
+     */
+    public static void fallback() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (!(requestAttributes instanceof ServletRequestAttributes servletRequestAttributes)) {
+            return;
+        }
+        HttpServletResponse response = servletRequestAttributes.getResponse();
+        if (response != null) {
+            response.setHeader("Content-type", "text/html;charset=UTF-8");
+            try (PrintWriter writer = response.getWriter()) {
+                log.info(FALLBACK_MESSAGE);
+                writer.println(FALLBACK_MESSAGE);
+                writer.flush();
+            } catch (IOException e) {
+                log.error("服务降级: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
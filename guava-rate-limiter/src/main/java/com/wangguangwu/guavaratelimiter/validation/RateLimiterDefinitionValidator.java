@@ -0,0 +1,122 @@
+package com.wangguangwu.guavaratelimiter.validation;
+
+import com.wangguangwu.guavaratelimiter.annotation.AdaptiveConcurrencyLimiter;
+import com.wangguangwu.guavaratelimiter.annotation.GuavaRateLimiter;
+import com.wangguangwu.guavaratelimiter.component.ConcurrencyLimiterComponent;
+import com.wangguangwu.guavaratelimiter.component.RateLimiterComponent;
+import com.wangguangwu.guavaratelimiter.enums.LimitMode;
+import com.wangguangwu.guavaratelimiter.enums.LimitType;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 限流定义的启动校验与预创建。
+ * <p>
+ * 所有单例创建完成后，扫描 Bean 中标注了 {@link GuavaRateLimiter} 或 {@link AdaptiveConcurrencyLimiter} 的方法，
+ * 按切面使用的限流键（{@code 类名.方法名}）预先创建限流器，创建失败或参数不合法的定义汇总后以
+ * {@link IllegalStateException} 终止启动，避免错误的配置在第一次请求时才暴露，第一次请求也不再承担创建限流器的开销。
+ * </p>
+ * <p>
+ * 预创建的 Guava 限流器在第一次请求前会积累最多一秒的令牌，与限流器空闲一段时间后的行为一致。
+ * 按 IP 限流的定义使用启动时分配的堆外限流表，只校验参数。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+@Component
+public class RateLimiterDefinitionValidator implements SmartInitializingSingleton {
+
+    /**
+     * 影子模式限流器的键前缀，与切面保持一致
+     */
+    private static final String SHADOW_PREFIX = "shadow:";
+
+    @Resource
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Resource
+    private RateLimiterComponent rateLimiterComponent;
+
+    @Resource
+    private ConcurrencyLimiterComponent concurrencyLimiterComponent;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> errors = new ArrayList<>();
+        int definitions = 0;
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType = beanFactory.getType(beanName, false);
+            if (beanType == null) {
+                continue;
+            }
+            Set<Method> methods = MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+                    (ReflectionUtils.MethodFilter) RateLimiterDefinitionValidator::isLimited);
+            for (Method method : methods) {
+                definitions++;
+                String key = method.getDeclaringClass().getName() + "." + method.getName();
+                try {
+                    register(key, method);
+                } catch (IllegalArgumentException e) {
+                    errors.add(key + ": " + e.getMessage());
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("限流定义不合法:\n" + String.join("\n", errors));
+        }
+        log.info("已校验并预创建 {} 个限流定义", definitions);
+    }
+
+    private static boolean isLimited(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, GuavaRateLimiter.class)
+                || AnnotatedElementUtils.hasAnnotation(method, AdaptiveConcurrencyLimiter.class);
+    }
+
+    private void register(String key, Method method) {
+        GuavaRateLimiter guavaRateLimiter = AnnotatedElementUtils.findMergedAnnotation(method, GuavaRateLimiter.class);
+        if (guavaRateLimiter != null) {
+            register(key, guavaRateLimiter);
+        }
+        AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter =
+                AnnotatedElementUtils.findMergedAnnotation(method, AdaptiveConcurrencyLimiter.class);
+        if (adaptiveConcurrencyLimiter != null) {
+            concurrencyLimiterComponent.getLimit(key, adaptiveConcurrencyLimiter.initialLimit(),
+                    adaptiveConcurrencyLimiter.minLimit(), adaptiveConcurrencyLimiter.maxLimit(),
+                    adaptiveConcurrencyLimiter.windowMillis());
+        }
+    }
+
+    private void register(String key, GuavaRateLimiter guavaRateLimiter) {
+        double rate = guavaRateLimiter.rate();
+        if (!(rate > 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("速率必须为正数");
+        }
+        if (guavaRateLimiter.timeout() < 0) {
+            throw new IllegalArgumentException("超时时间不能为负数");
+        }
+        if (guavaRateLimiter.limitType() == LimitType.IP) {
+            return;
+        }
+        String limiterKey = guavaRateLimiter.mode() == LimitMode.SHADOW ? SHADOW_PREFIX + key : key;
+        double criticalReserve = guavaRateLimiter.criticalReserve();
+        double normalReserve = guavaRateLimiter.normalReserve();
+        if (criticalReserve <= 0 && normalReserve <= 0) {
+            rateLimiterComponent.preCreate(limiterKey, rate, guavaRateLimiter.clusterShared());
+        } else {
+            rateLimiterComponent.preCreate(limiterKey, rate, criticalReserve, normalReserve);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.wangguangwu.guavaratelimiter.aspect;
+
+import com.wangguangwu.guavaratelimiter.annotation.GuavaRateLimiter;
+import com.wangguangwu.guavaratelimiter.component.RateLimiterComponent;
+import com.wangguangwu.guavaratelimiter.enums.LimitMode;
+import com.wangguangwu.guavaratelimiter.metrics.RateLimitMetrics;
+import com.wangguangwu.guavaratelimiter.priority.HeaderPriorityResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 响应式限流切面单元测试
+ *
+ * @author wangguangwu
+ */
+public class ReactiveGuavaRateLimiterAspectTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Api api;
+
+    @BeforeEach
+    public void setUp() {
+        RateLimitMetrics rateLimitMetrics = new RateLimitMetrics();
+        ReflectionTestUtils.setField(rateLimitMetrics, "meterRegistry", meterRegistry);
+
+        ReactiveGuavaRateLimiterAspect aspect = new ReactiveGuavaRateLimiterAspect();
+        ReflectionTestUtils.setField(aspect, "rateLimiterComponent", new RateLimiterComponent());
+        ReflectionTestUtils.setField(aspect, "priorityResolver", new HeaderPriorityResolver());
+        ReflectionTestUtils.setField(aspect, "rateLimitMetrics", rateLimitMetrics);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Api());
+        factory.addAspect(aspect);
+        api = factory.getProxy();
+    }
+
+    @Test
+    public void testRejectWithoutTimeout() {
+        StepVerifier.create(api.noWait()).expectNext("success").verifyComplete();
+        StepVerifier.create(api.noWait()).expectError(ResponseStatusException.class).verify();
+    }
+
+    @Test
+    public void testWaitForTokenWithinTimeout() {
+        StepVerifier.create(api.withTimeout()).expectNext("success").verifyComplete();
+        // 每秒 5 个令牌，下一个令牌在 200ms 内可用
+        StepVerifier.create(api.withTimeout())
+                .expectNext("success")
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testShadowModeNeverRejects() {
+        StepVerifier.create(api.shadow()).expectNext("success").verifyComplete();
+        StepVerifier.create(api.shadow()).expectNext("success").verifyComplete();
+
+        assertEquals(1.0, meterRegistry.get("rate.limiter.requests")
+                .tags("mode", "shadow", "result", "rejected").counter().count());
+    }
+
+    static class Api {
+
+        @GuavaRateLimiter(rate = 1.0)
+        public Mono<String> noWait() {
+            return Mono.just("success");
+        }
+
+        @GuavaRateLimiter(rate = 5.0, timeout = 500)
+        public Mono<String> withTimeout() {
+            return Mono.just("success");
+        }
+
+        @GuavaRateLimiter(rate = 1.0, mode = LimitMode.SHADOW)
+        public Mono<String> shadow() {
+            return Mono.just("success");
+        }
+    }
+}
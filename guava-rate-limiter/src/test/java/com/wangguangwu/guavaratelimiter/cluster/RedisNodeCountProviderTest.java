@@ -0,0 +1,63 @@
+package com.wangguangwu.guavaratelimiter.cluster;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis 心跳节点数提供者单元测试
+ *
+ * @author wangguangwu
+ */
+public class RedisNodeCountProviderTest {
+
+    private ZSetOperations<String, String> zSetOperations;
+
+    private RedisNodeCountProvider provider;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        StringRedisTemplate stringRedisTemplate = Mockito.mock(StringRedisTemplate.class);
+        zSetOperations = Mockito.mock(ZSetOperations.class);
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        // 心跳使用 Redis 的时间，而不是本机时间
+        when(stringRedisTemplate.execute(any(RedisCallback.class))).thenReturn(100_000L);
+        provider = new RedisNodeCountProvider();
+        ReflectionTestUtils.setField(provider, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(provider, "key", "nodes");
+        ReflectionTestUtils.setField(provider, "nodeTimeoutMillis", 5000L);
+    }
+
+    @Test
+    public void testHeartbeatRefreshesNodeCount() {
+        when(zSetOperations.zCard("nodes")).thenReturn(4L);
+
+        provider.heartbeat();
+
+        assertEquals(4, provider.getNodeCount());
+        Mockito.verify(zSetOperations).add(eq("nodes"), anyString(), eq(100_000.0));
+        Mockito.verify(zSetOperations).removeRangeByScore(eq("nodes"), eq(Double.NEGATIVE_INFINITY), eq(95_000.0));
+    }
+
+    @Test
+    public void testFailedHeartbeatKeepsLastNodeCount() {
+        when(zSetOperations.zCard("nodes")).thenReturn(3L);
+        provider.heartbeat();
+
+        when(zSetOperations.zCard("nodes")).thenThrow(new IllegalStateException("redis down"));
+        provider.heartbeat();
+
+        assertEquals(3, provider.getNodeCount());
+    }
+}
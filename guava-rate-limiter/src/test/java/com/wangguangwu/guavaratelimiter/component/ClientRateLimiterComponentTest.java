@@ -0,0 +1,29 @@
+package com.wangguangwu.guavaratelimiter.component;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按客户端限流组件单元测试
+ *
+ * @author wangguangwu
+ */
+public class ClientRateLimiterComponentTest {
+
+    @Test
+    public void testRejectWhenClientUnknown() {
+        ClientRateLimiterComponent component = new ClientRateLimiterComponent();
+        ReflectionTestUtils.setField(component, "capacity", 1024);
+        ReflectionTestUtils.setField(component, "maxProbe", 16);
+        component.init();
+
+        // 无法获取 IP 的请求不会共享同一个令牌桶，而是直接拒绝
+        assertFalse(component.tryAcquire("api", null, 10, 0));
+        assertEquals(-1, component.reserve("api", "", 10, 0));
+        assertTrue(component.tryAcquire("api", "203.0.113.5", 10, 0));
+    }
+}
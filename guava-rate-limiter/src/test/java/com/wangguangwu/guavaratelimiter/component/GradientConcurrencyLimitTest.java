@@ -0,0 +1,86 @@
+package com.wangguangwu.guavaratelimiter.component;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 自适应并发上限单元测试
+ *
+ * @author wangguangwu
+ */
+public class GradientConcurrencyLimitTest {
+
+    private static final long WINDOW_MILLIS = 100;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void testRejectWhenInflightReachesLimit() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(2, 1, 10, WINDOW_MILLIS, clock::get);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        limit.releaseWithoutSample();
+        assertTrue(limit.tryAcquire());
+        assertEquals(2, limit.getInflight());
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyRises() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 1, 100, WINDOW_MILLIS, clock::get);
+        runWindows(limit, 5, TimeUnit.MILLISECONDS.toNanos(10));
+        int healthyLimit = limit.getLimit();
+
+        runWindows(limit, 10, TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertTrue(limit.getLimit() < healthyLimit,
+                "limit should shrink from " + healthyLimit + " but was " + limit.getLimit());
+    }
+
+    @Test
+    public void testLimitGrowsWhileLatencyIsStable() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 100, WINDOW_MILLIS, clock::get);
+
+        runWindows(limit, 20, TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertTrue(limit.getLimit() > 10, "limit should grow but was " + limit.getLimit());
+        assertTrue(limit.getLimit() <= 100);
+    }
+
+    @Test
+    public void testLimitUnchangedWhenUnderutilized() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 1, 100, WINDOW_MILLIS, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS));
+            limit.release(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    /**
+     * 每个窗口内把并发压满，然后以相同的耗时释放。
+     */
+    private void runWindows(GradientConcurrencyLimit limit, int windows, long rttNanos) {
+        for (int w = 0; w < windows; w++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS));
+            for (int i = 0; i < acquired; i++) {
+                limit.release(rttNanos);
+            }
+        }
+    }
+}
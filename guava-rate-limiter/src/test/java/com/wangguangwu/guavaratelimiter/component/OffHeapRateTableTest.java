@@ -0,0 +1,110 @@
+package com.wangguangwu.guavaratelimiter.component;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 堆外按客户端限流表单元测试
+ *
+ * @author wangguangwu
+ */
+public class OffHeapRateTableTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    public void testBurstThenSteadyRate() {
+        OffHeapRateTable table = new OffHeapRateTable(16, 4, clock::get);
+        long client = OffHeapRateTable.hash("api", "10.0.0.1");
+
+        // 新客户端的令牌桶是满的，可以立即放行一秒的令牌数
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, table.reserve(client, 10, 0));
+        }
+        assertEquals(-1, table.reserve(client, 10, 0));
+        // 允许等待时返回下一个令牌的等待时间
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), table.reserve(client, 10, TimeUnit.SECONDS.toNanos(1)));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0, table.reserve(client, 10, 0));
+        assertEquals(-1, table.reserve(client, 10, 0));
+
+        // 其他客户端不受影响
+        assertEquals(0, table.reserve(OffHeapRateTable.hash("api", "10.0.0.2"), 10, 0));
+    }
+
+    @Test
+    public void testFractionalRateKeepsOneSecondBurst() {
+        OffHeapRateTable table = new OffHeapRateTable(16, 4, clock::get);
+        long client = OffHeapRateTable.hash("api", "10.0.0.1");
+
+        // 每秒 2.5 个令牌，令牌桶容量为一秒的令牌数，第三个令牌只需再等 200ms
+        assertEquals(0, table.reserve(client, 2.5, 0));
+        assertEquals(0, table.reserve(client, 2.5, 0));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), table.reserve(client, 2.5, TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    public void testFullTableFailsOpenAndReclaimsRefilledSlots() {
+        OffHeapRateTable table = new OffHeapRateTable(4, 4, clock::get);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, table.reserve(OffHeapRateTable.hash("api", "client-" + i), 1, 0));
+        }
+        assertEquals(4, table.activeCount());
+
+        // 所有槽位都在限流中，新客户端直接放行并计数
+        long newcomer = OffHeapRateTable.hash("api", "newcomer");
+        assertEquals(0, table.reserve(newcomer, 1, 0));
+        assertEquals(1, table.overflowCount());
+
+        // 令牌桶补满后槽位可以被新客户端复用
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, table.reserve(newcomer, 1, 0));
+        assertEquals(-1, table.reserve(newcomer, 1, 0));
+        assertEquals(1, table.activeCount());
+        assertEquals(1, table.overflowCount());
+    }
+
+    @Test
+    public void testConcurrentReservationsAreExact() throws Exception {
+        OffHeapRateTable table = new OffHeapRateTable(1024, 16, clock::get);
+        long client = OffHeapRateTable.hash("api", "10.0.0.1");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    int admitted = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (table.reserve(client, 100, 0) == 0) {
+                            admitted++;
+                        }
+                    }
+                    return admitted;
+                }));
+            }
+            int admitted = 0;
+            for (Future<Integer> future : futures) {
+                admitted += future.get();
+            }
+            assertEquals(100, admitted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCapacityMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapRateTable(1000, 16));
+    }
+}
@@ -0,0 +1,122 @@
+package com.wangguangwu.guavaratelimiter.component;
+
+import com.wangguangwu.guavaratelimiter.enums.TrafficPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按优先级预留容量的令牌桶单元测试
+ *
+ * @author wangguangwu
+ */
+public class PriorityTokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void testLowerPriorityCannotUseActiveReserve() {
+        // 每秒 10 个令牌，为关键流量预留 50%
+        PriorityTokenBucket bucket = new PriorityTokenBucket(10, 0.5, 0, clock::get);
+        fill();
+
+        // 关键流量处于活跃状态
+        assertTrue(bucket.tryAcquire(TrafficPriority.CRITICAL, 0));
+
+        int normalAdmitted = 0;
+        while (bucket.tryAcquire(TrafficPriority.NORMAL, 0)) {
+            normalAdmitted++;
+        }
+        // 桶内剩余 9 个令牌，其中 5 个为关键流量预留
+        assertEquals(4, normalAdmitted);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire(TrafficPriority.CRITICAL, 0));
+        }
+        assertFalse(bucket.tryAcquire(TrafficPriority.CRITICAL, 0));
+    }
+
+    @Test
+    public void testLowerPriorityBorrowsIdleReserve() {
+        PriorityTokenBucket bucket = new PriorityTokenBucket(10, 0.3, 0.3, clock::get);
+        fill();
+
+        int admitted = 0;
+        while (bucket.tryAcquire(TrafficPriority.BEST_EFFORT, 0)) {
+            admitted++;
+        }
+        assertEquals(10, admitted);
+    }
+
+    @Test
+    public void testReserveReleasedAfterIdle() {
+        PriorityTokenBucket bucket = new PriorityTokenBucket(10, 0.5, 0, clock::get);
+        fill();
+        bucket.tryAcquire(TrafficPriority.CRITICAL, 0);
+        while (bucket.tryAcquire(TrafficPriority.NORMAL, 0)) {
+            // 用完未预留的令牌
+        }
+
+        // 关键流量空闲超过一秒后，普通流量可以使用整个桶
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        int admitted = 0;
+        while (bucket.tryAcquire(TrafficPriority.NORMAL, 0)) {
+            admitted++;
+        }
+        assertEquals(10, admitted);
+    }
+
+    @Test
+    public void testQueuedLowerPriorityDoesNotConsumeReserve() throws Exception {
+        // 在真实时钟上叠加偏移，低优先级请求在超时时间内真实地排队等待
+        PriorityTokenBucket bucket = new PriorityTokenBucket(10, 0.5, 0, () -> System.nanoTime() + clock.get());
+        fill();
+        assertTrue(bucket.tryAcquire(TrafficPriority.CRITICAL, 0));
+        while (bucket.tryAcquire(TrafficPriority.NORMAL, 0)) {
+            // 用完未预留的令牌
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch started = new CountDownLatch(8);
+            List<Future<Boolean>> waiters = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                waiters.add(executorService.submit(() -> {
+                    started.countDown();
+                    return bucket.tryAcquire(TrafficPriority.BEST_EFFORT, 500);
+                }));
+            }
+            started.await();
+            TimeUnit.MILLISECONDS.sleep(50);
+
+            // 排队的低优先级请求没有预支令牌，关键流量不需要等待
+            assertTrue(bucket.tryAcquire(TrafficPriority.CRITICAL, 0));
+            for (Future<Boolean> waiter : waiters) {
+                waiter.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInvalidReserve() {
+        assertThrows(IllegalArgumentException.class, () -> new PriorityTokenBucket(10, 0.7, 0.5));
+    }
+
+    private void fill() {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    }
+}
@@ -0,0 +1,35 @@
+package com.wangguangwu.guavaratelimiter.component;
+
+import com.wangguangwu.guavaratelimiter.cluster.NodeCountProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 限流器组件单元测试
+ * <p>
+ * 验证集群共享速率随节点数变化而调整。
+ *
+ * @author wangguangwu
+ */
+public class RateLimiterComponentTest {
+
+    @Test
+    public void testSharedRateFollowsNodeCount() {
+        AtomicInteger nodeCount = new AtomicInteger(4);
+        RateLimiterComponent component = new RateLimiterComponent();
+        ReflectionTestUtils.setField(component, "nodeCountProvider", (NodeCountProvider) nodeCount::get);
+
+        assertTrue(component.tryAcquireShared("shared", 20.0, 0));
+        assertEquals(5.0, component.getRateLimiter("shared", 20.0).getRate(), 1e-9);
+
+        // 扩容到 20 个节点后，每个节点的速率降为 1
+        nodeCount.set(20);
+        component.tryAcquireShared("shared", 20.0, 0);
+        assertEquals(1.0, component.getRateLimiter("shared", 20.0).getRate(), 1e-9);
+    }
+}
@@ -0,0 +1,42 @@
+package com.wangguangwu.guavaratelimiter.ipfilter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 客户端 IP 解析单元测试
+ *
+ * @author wangguangwu
+ */
+public class ClientIpResolverTest {
+
+    @Test
+    public void testForwardedForIgnoredWithoutTrustedProxies() {
+        ClientIpResolver resolver = resolver(List.of());
+
+        // 客户端伪造的地址不生效，不会为每个伪造地址占用一个限流表槽位
+        assertEquals("203.0.113.5", resolver.resolve("203.0.113.5", "198.51.100.1"));
+        assertNull(resolver.resolve(null, "198.51.100.1"));
+    }
+
+    @Test
+    public void testRightMostUntrustedHop() {
+        ClientIpResolver resolver = resolver(List.of("10.0.0.0/8", "192.168.1.1"));
+
+        assertEquals("203.0.113.5", resolver.resolve("203.0.113.5", "10.0.0.1"));
+        assertEquals("198.51.100.7", resolver.resolve("10.0.0.2", "10.9.9.9, 198.51.100.7, 192.168.1.1"));
+        assertEquals("10.1.1.1", resolver.resolve("10.0.0.2", "10.1.1.1, 192.168.1.1"));
+    }
+
+    private static ClientIpResolver resolver(List<String> trustedProxies) {
+        ClientIpResolver resolver = new ClientIpResolver();
+        ReflectionTestUtils.setField(resolver, "trustedProxies", trustedProxies);
+        resolver.init();
+        return resolver;
+    }
+}
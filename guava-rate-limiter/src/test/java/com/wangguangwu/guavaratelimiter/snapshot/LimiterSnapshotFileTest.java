@@ -0,0 +1,97 @@
+package com.wangguangwu.guavaratelimiter.snapshot;
+
+import com.wangguangwu.guavaratelimiter.component.RateLimiterComponent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 限流器快照单元测试
+ *
+ * @author wangguangwu
+ */
+public class LimiterSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path path = tempDir.resolve("limiter.snapshot");
+        List<LimiterState> states = List.of(
+                new LimiterState("ApiController.action", 1.0, 1_700_000_000_000L),
+                new LimiterState("限流键", 2.5, 0L));
+
+        LimiterSnapshotFile.write(path, states);
+
+        assertEquals(states, LimiterSnapshotFile.read(path));
+        assertFalse(Files.exists(tempDir.resolve("limiter.snapshot.tmp")));
+    }
+
+    @Test
+    public void testReadMissingFile() throws IOException {
+        assertTrue(LimiterSnapshotFile.read(tempDir.resolve("missing.snapshot")).isEmpty());
+    }
+
+    @Test
+    public void testReadCorruptedFile() throws IOException {
+        Path path = tempDir.resolve("corrupted.snapshot");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+
+        assertThrows(IOException.class, () -> LimiterSnapshotFile.read(path));
+    }
+
+    @Test
+    public void testRestoreExhaustedLimiter() {
+        RateLimiterComponent component = new RateLimiterComponent();
+        component.restore(new LimiterState("exhausted", 1.0, System.currentTimeMillis()));
+        component.restore(new LimiterState("idle", 1.0, System.currentTimeMillis() - 60_000));
+
+        // 重启前刚放行过的限流器不会再立即放行
+        assertFalse(component.tryAcquire("exhausted", 1.0, 0));
+        assertTrue(component.tryAcquire("idle", 1.0, 0));
+    }
+
+    @Test
+    public void testRestoreKeepsConfiguredRate() {
+        RateLimiterComponent component = new RateLimiterComponent();
+        component.restore(new LimiterState("changed", 1.0, System.currentTimeMillis()));
+
+        // 注解中的速率改为 5 后重新部署，不沿用快照中的旧速率
+        assertEquals(5.0, component.getRateLimiter("changed", 5.0).getRate(), 1e-9);
+        assertEquals(5.0, component.snapshot().get(0).rate(), 1e-9);
+        assertEquals(10.0, component.getRateLimiter("changed", 10.0).getRate(), 1e-9);
+    }
+
+    @Test
+    public void testSaveSkipsUnchangedState() {
+        Path path = tempDir.resolve("limiter.snapshot");
+        RateLimiterComponent component = new RateLimiterComponent();
+        component.restore(new LimiterState("key", 1.0, 0L));
+        LimiterSnapshotManager manager = new LimiterSnapshotManager();
+        ReflectionTestUtils.setField(manager, "rateLimiterComponent", component);
+        ReflectionTestUtils.setField(manager, "path", path);
+
+        manager.save();
+        assertTrue(Files.exists(path));
+
+        // 状态未变化时不重写快照文件
+        path.toFile().delete();
+        manager.save();
+        assertFalse(Files.exists(path));
+
+        assertTrue(component.tryAcquire("key", 1.0, 0));
+        manager.save();
+        assertTrue(Files.exists(path));
+    }
+}
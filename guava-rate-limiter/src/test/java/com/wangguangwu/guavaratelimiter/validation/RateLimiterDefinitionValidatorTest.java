@@ -0,0 +1,72 @@
+package com.wangguangwu.guavaratelimiter.validation;
+
+import com.wangguangwu.guavaratelimiter.annotation.GuavaRateLimiter;
+import com.wangguangwu.guavaratelimiter.cluster.NodeCountProvider;
+import com.wangguangwu.guavaratelimiter.component.ConcurrencyLimiterComponent;
+import com.wangguangwu.guavaratelimiter.component.RateLimiterComponent;
+import com.wangguangwu.guavaratelimiter.enums.LimitMode;
+import com.wangguangwu.guavaratelimiter.snapshot.LimiterState;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 限流定义启动校验单元测试
+ *
+ * @author wangguangwu
+ */
+public class RateLimiterDefinitionValidatorTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withBean(NodeCountProvider.class, () -> () -> 1)
+            .withBean(RateLimiterComponent.class)
+            .withBean(ConcurrencyLimiterComponent.class)
+            .withBean(RateLimiterDefinitionValidator.class);
+
+    @Test
+    public void testLimitersArePreCreatedAtStartup() {
+        runner.withBean(ValidApi.class).run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context.getBean(RateLimiterComponent.class).snapshot())
+                    .extracting(LimiterState::key)
+                    .containsExactlyInAnyOrder(ValidApi.class.getName() + ".action",
+                            "shadow:" + ValidApi.class.getName() + ".shadow");
+        });
+    }
+
+    @Test
+    public void testInvalidDefinitionFailsStartup() {
+        runner.withBean(InvalidApi.class).run(context -> assertThat(context).hasFailed()
+                .getFailure()
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(InvalidApi.class.getName() + ".zeroRate")
+                .hasMessageContaining(InvalidApi.class.getName() + ".overReserved"));
+    }
+
+    static class ValidApi {
+
+        @GuavaRateLimiter(rate = 5.0)
+        public String action() {
+            return "success";
+        }
+
+        @GuavaRateLimiter(rate = 5.0, mode = LimitMode.SHADOW)
+        public String shadow() {
+            return "success";
+        }
+    }
+
+    static class InvalidApi {
+
+        @GuavaRateLimiter(rate = 0)
+        public String zeroRate() {
+            return "success";
+        }
+
+        @GuavaRateLimiter(criticalReserve = 0.8, normalReserve = 0.5)
+        public String overReserved() {
+            return "success";
+        }
+    }
+}
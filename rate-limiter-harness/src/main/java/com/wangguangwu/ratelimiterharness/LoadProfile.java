@@ -0,0 +1,90 @@
+package com.wangguangwu.ratelimiterharness;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 开环负载的到达时间表。
+ * <p>
+ * 每个请求的发送时间在压测开始前就已确定，与被测限流器的响应快慢无关，
+ * 避免闭环压测中“限流器越慢、发送越少”掩盖问题。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class LoadProfile {
+
+    private final String name;
+
+    private final long[] offsetsNanos;
+
+    private final Duration duration;
+
+    private LoadProfile(String name, long[] offsetsNanos, Duration duration) {
+        this.name = name;
+        this.offsetsNanos = offsetsNanos;
+        this.duration = duration;
+    }
+
+    /**
+     * 恒定到达率：请求以 {@code 1 / ratePerSecond} 的固定间隔到达。
+     *
+     * @param ratePerSecond 每秒到达的请求数
+     * @param duration      压测时长
+     * @return 到达时间表
+     */
+    public static LoadProfile constant(double ratePerSecond, Duration duration) {
+        int size = (int) (ratePerSecond * duration.toNanos() / TimeUnit.SECONDS.toNanos(1));
+        long[] offsets = new long[size];
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        for (int i = 0; i < size; i++) {
+            offsets[i] = (long) (i * intervalNanos);
+        }
+        return new LoadProfile("constant(" + ratePerSecond + "/s)", offsets, duration);
+    }
+
+    /**
+     * 突发到达：每隔 {@code burstSize / ratePerSecond} 秒同时到达 {@code burstSize} 个请求，平均到达率与恒定到达相同。
+     *
+     * @param ratePerSecond 平均每秒到达的请求数
+     * @param burstSize     每次突发的请求数
+     * @param duration      压测时长
+     * @return 到达时间表
+     */
+    public static LoadProfile bursty(double ratePerSecond, int burstSize, Duration duration) {
+        int size = (int) (ratePerSecond * duration.toNanos() / TimeUnit.SECONDS.toNanos(1));
+        long[] offsets = new long[size];
+        double burstIntervalNanos = TimeUnit.SECONDS.toNanos(1) * burstSize / ratePerSecond;
+        for (int i = 0; i < size; i++) {
+            offsets[i] = (long) ((i / burstSize) * burstIntervalNanos);
+        }
+        return new LoadProfile("bursty(" + ratePerSecond + "/s, burst=" + burstSize + ")", offsets, duration);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * 请求总数。
+     *
+     * @return 请求总数
+     */
+    public int size() {
+        return offsetsNanos.length;
+    }
+
+    /**
+     * 第 {@code index} 个请求相对压测开始时间的发送时间。
+     *
+     * @param index 请求序号
+     * @return 发送时间，单位纳秒
+     */
+    public long offsetNanos(int index) {
+        return offsetsNanos[index];
+    }
+}
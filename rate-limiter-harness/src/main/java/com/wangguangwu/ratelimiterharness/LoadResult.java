@@ -0,0 +1,109 @@
+package com.wangguangwu.ratelimiterharness;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次开环压测的结果：各请求的放行时间，以及服务时间、响应时间的延迟直方图。
+ *
+ * @author wangguangwu
+ */
+public class LoadResult {
+
+    private final LoadProfile profile;
+
+    /**
+     * 被放行请求相对压测开始时间的放行时间，已排序，单位纳秒
+     */
+    private final long[] admittedAt;
+
+    private final Histogram serviceTime;
+
+    private final Histogram responseTime;
+
+    LoadResult(LoadProfile profile, long[] admittedAt, Histogram serviceTime, Histogram responseTime) {
+        this.profile = profile;
+        this.admittedAt = Arrays.stream(admittedAt).filter(t -> t >= 0).sorted().toArray();
+        this.serviceTime = serviceTime;
+        this.responseTime = responseTime;
+    }
+
+    public int getOffered() {
+        return profile.size();
+    }
+
+    public int getAdmitted() {
+        return admittedAt.length;
+    }
+
+    /**
+     * 限流器调用本身的耗时。
+     *
+     * @return 服务时间直方图，单位纳秒
+     */
+    public Histogram getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * 从计划发送时间到限流器返回的耗时。
+     *
+     * @return 响应时间直方图，单位纳秒
+     */
+    public Histogram getResponseTime() {
+        return responseTime;
+    }
+
+    /**
+     * 任意一个长度为 {@code window} 的滑动窗口内放行的最大请求数。
+     *
+     * @param window 窗口长度
+     * @return 最大放行数
+     */
+    public int maxAdmittedInWindow(Duration window) {
+        long windowNanos = window.toNanos();
+        int max = 0;
+        int from = 0;
+        for (int to = 0; to < admittedAt.length; to++) {
+            while (admittedAt[to] - admittedAt[from] >= windowNanos) {
+                from++;
+            }
+            max = Math.max(max, to - from + 1);
+        }
+        return max;
+    }
+
+    /**
+     * 从压测开始按固定窗口统计的放行数。
+     *
+     * @param window 窗口长度
+     * @return 每个窗口的放行数
+     */
+    public int[] admittedPerWindow(Duration window) {
+        long windowNanos = window.toNanos();
+        int[] counts = new int[(int) ((profile.getDuration().toNanos() + windowNanos - 1) / windowNanos) + 1];
+        for (long t : admittedAt) {
+            counts[(int) Math.min(counts.length - 1, t / windowNanos)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * 压测结果摘要，延迟单位为微秒。
+     *
+     * @return 摘要
+     */
+    public String summary() {
+        return String.format("%s offered=%d admitted=%d perSecond=%s service p50=%dus p99=%dus max=%dus response p99=%dus",
+                profile.getName(), getOffered(), getAdmitted(), Arrays.toString(admittedPerWindow(Duration.ofSeconds(1))),
+                micros(serviceTime.getValueAtPercentile(50)), micros(serviceTime.getValueAtPercentile(99)),
+                micros(serviceTime.getMaxValue()), micros(responseTime.getValueAtPercentile(99)));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
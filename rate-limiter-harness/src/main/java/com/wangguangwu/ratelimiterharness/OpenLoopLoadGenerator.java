@@ -0,0 +1,100 @@
+package com.wangguangwu.ratelimiterharness;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 开环负载生成器，在进程内按 {@link LoadProfile} 的时间表并发调用被测限流器。
+ * <p>
+ * 多个工作线程依次领取请求序号，等到该请求的计划发送时间再调用限流器。
+ * 每次调用记录两个延迟：限流器调用本身的耗时（服务时间），以及从计划发送时间算起的耗时（响应时间）；
+ * 后者包含了排队等待，不受协调遗漏（coordinated omission）影响。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public class OpenLoopLoadGenerator {
+
+    /**
+     * 距离计划发送时间超过该值时挂起线程，否则自旋等待
+     */
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * 压测开始前留给工作线程就绪的时间
+     */
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final int threads;
+
+    public OpenLoopLoadGenerator(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * 按时间表调用被测限流器，直到所有请求发送完毕。
+     *
+     * @param profile 到达时间表
+     * @param limiter 被测限流器，返回 true 表示请求被放行
+     * @return 压测结果
+     * @throws Exception 工作线程执行失败
+     */
+    public LoadResult run(LoadProfile profile, BooleanSupplier limiter) throws Exception {
+        long[] admittedAt = new long[profile.size()];
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime() + START_DELAY_NANOS;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Histogram[]>> futures = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    Histogram serviceTime = new Histogram(3);
+                    Histogram responseTime = new Histogram(3);
+                    int index;
+                    while ((index = next.getAndIncrement()) < profile.size()) {
+                        long intended = start + profile.offsetNanos(index);
+                        awaitUntil(intended);
+                        long begin = System.nanoTime();
+                        boolean admitted = limiter.getAsBoolean();
+                        long end = System.nanoTime();
+                        serviceTime.recordValue(end - begin);
+                        responseTime.recordValue(Math.max(0, end - intended));
+                        admittedAt[index] = admitted ? end - start : -1;
+                    }
+                    return new Histogram[]{serviceTime, responseTime};
+                }));
+            }
+            Histogram serviceTime = new Histogram(3);
+            Histogram responseTime = new Histogram(3);
+            for (Future<Histogram[]> future : futures) {
+                Histogram[] histograms = future.get();
+                serviceTime.add(histograms[0]);
+                responseTime.add(histograms[1]);
+            }
+            return new LoadResult(profile, admittedAt, serviceTime, responseTime);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.wangguangwu.ratelimiterharness;
+
+import com.wangguangwu.distributedratelimiter.backend.InMemoryRateLimitBackend;
+import com.wangguangwu.guavaratelimiter.component.PriorityTokenBucket;
+import com.wangguangwu.guavaratelimiter.component.RateLimiterComponent;
+import com.wangguangwu.guavaratelimiter.enums.TrafficPriority;
+import com.wangguangwu.resilience4jratelimiter.component.KeyedRateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 限流精度测试
+ * <p>
+ * 以 10 倍于限流值的开环负载分别按恒定、突发两种到达方式压测各个限流引擎，
+ * 验证任意窗口内的放行数不超过引擎语义允许的上限、总放行数不明显低于限流值，
+ * 可通过 {@code -Dharness.duration-ms}、{@code -Dharness.threads} 调整。
+ * 耗时受 CI 机器负载影响较大，默认不校验；指定 {@code -Dharness.p99-budget-us} 时，额外验证限流器调用的 p99 耗时不超过预算。
+ *
+ * @author wangguangwu
+ */
+public class LimiterAccuracyTest {
+
+    /**
+     * 每秒限流值
+     */
+    private static final int LIMIT = 100;
+
+    /**
+     * 每秒到达的请求数
+     */
+    private static final int OFFERED = LIMIT * 10;
+
+    private static final Duration DURATION = Duration.ofMillis(Long.getLong("harness.duration-ms", 2000));
+
+    private static final int THREADS = Integer.getInteger("harness.threads", 4);
+
+    /**
+     * 限流器调用的 p99 耗时预算，未指定时不校验
+     */
+    private static final Long P99_BUDGET_MICROS = Long.getLong("harness.p99-budget-us");
+
+    private static final Duration ONE_SECOND = Duration.ofSeconds(1);
+
+    private final OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(THREADS);
+
+    static Stream<LoadProfile> profiles() {
+        return Stream.of(LoadProfile.constant(OFFERED, DURATION), LoadProfile.bursty(OFFERED, LIMIT, DURATION));
+    }
+
+    /**
+     * Guava 令牌桶最多积攒一秒的令牌，任意一秒内最多放行 {@code 积攒的令牌 + 一秒新增的令牌}。
+     */
+    @ParameterizedTest
+    @MethodSource("profiles")
+    public void testGuavaRateLimiter(LoadProfile profile) throws Exception {
+        RateLimiterComponent component = new RateLimiterComponent();
+        LoadResult result = generator.run(profile, () -> component.tryAcquire("harness", LIMIT, 0));
+
+        assertAccuracy(result, 2 * LIMIT + 1, expectedTokens());
+    }
+
+    /**
+     * 按优先级预留的令牌桶与 Guava 令牌桶的上限相同。
+     */
+    @ParameterizedTest
+    @MethodSource("profiles")
+    public void testPriorityTokenBucket(LoadProfile profile) throws Exception {
+        PriorityTokenBucket bucket = new PriorityTokenBucket(LIMIT, 0.2, 0.0);
+        LoadResult result = generator.run(profile, () -> bucket.tryAcquire(TrafficPriority.NORMAL, 0));
+
+        assertAccuracy(result, 2 * LIMIT + 1, expectedTokens());
+    }
+
+    /**
+     * 计数窗口在最后一次放行后才过期，与 limit.lua 一致，任意一秒内的放行数都不超过限流值。
+     * 窗口放满需要 {@code LIMIT / OFFERED} 秒，放满后再等一个周期才重新计数，总放行数按此折算。
+     */
+    @ParameterizedTest
+    @MethodSource("profiles")
+    public void testInMemoryBackend(LoadProfile profile) throws Exception {
+        InMemoryRateLimitBackend backend = new InMemoryRateLimitBackend();
+        LoadResult result = generator.run(profile, () -> backend.tryAcquire("limiter:harness", LIMIT, 1));
+
+        assertAccuracy(result, LIMIT, expectedTokens() * OFFERED / (OFFERED + LIMIT));
+    }
+
+    /**
+     * Resilience4j 按固定周期刷新许可，周期边界两侧各放满一次时，任意一秒内最多放行两个周期的许可。
+     */
+    @ParameterizedTest
+    @MethodSource("profiles")
+    public void testKeyedResilience4jRateLimiter(LoadProfile profile) throws Exception {
+        KeyedRateLimiterRegistry registry = new KeyedRateLimiterRegistry();
+        ReflectionTestUtils.setField(registry, "rateLimiterRegistry", RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitForPeriod(LIMIT)
+                .limitRefreshPeriod(ONE_SECOND)
+                .timeoutDuration(Duration.ZERO)
+                .build()));
+        ReflectionTestUtils.setField(registry, "maxSize", 16);
+        RateLimiter rateLimiter = registry.rateLimiter("harness", "ip:127.0.0.1");
+        LoadResult result = generator.run(profile, rateLimiter::acquirePermission);
+
+        assertAccuracy(result, 2 * LIMIT, expectedTokens());
+    }
+
+    /**
+     * 压测时长内按限流值应当放行的请求数，留出 10% 的余量。
+     */
+    private static int expectedTokens() {
+        return (int) (LIMIT * DURATION.toMillis() / 1000 * 0.9);
+    }
+
+    private static void assertAccuracy(LoadResult result, int maxPerSecond, int minAdmitted) {
+        int maxInWindow = result.maxAdmittedInWindow(ONE_SECOND);
+        assertTrue(maxInWindow <= maxPerSecond,
+                "任意一秒内最多放行 " + maxPerSecond + " 个请求，实际放行 " + maxInWindow + " 个: " + result.summary());
+        assertTrue(result.getAdmitted() >= minAdmitted,
+                "至少应放行 " + minAdmitted + " 个请求，实际放行 " + result.getAdmitted() + " 个: " + result.summary());
+        if (P99_BUDGET_MICROS != null) {
+            long p99 = TimeUnit.NANOSECONDS.toMicros(result.getServiceTime().getValueAtPercentile(99));
+            assertTrue(p99 <= P99_BUDGET_MICROS,
+                    "限流器调用 p99 耗时 " + p99 + "us 超过预算 " + P99_BUDGET_MICROS + "us: " + result.summary());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.wangguangwu.resilience4jratelimiter.annotation;
+
+import com.wangguangwu.resilience4jratelimiter.enums.KeyType;
+
+import java.lang.annotation.*;
+
+/**
+ * 按调用方限流的注解。
+ * <p>
+ * 与 Resilience4j 的 {@code @RateLimiter} 所有调用方共享一个限流器不同，
+ * 该注解为每个调用方创建独立的限流器，限流参数沿用 {@code resilience4j.ratelimiter.instances.<name>} 的配置。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface KeyedRateLimiter {
+
+    /**
+     * Resilience4j 限流器实例名称，用于读取限流配置
+     *
+     * @return name
+     */
+    String name();
+
+    /**
+     * 限流维度，默认按 IP 限流
+     *
+     * @return keyType
+     */
+    KeyType keyType() default KeyType.IP;
+
+    /**
+     * 限流时调用的降级方法名称，降级方法与原方法位于同一个类中，
+     * 参数为原方法的参数加上一个 {@link Throwable}，或只有一个 {@link Throwable}
+     *
+     * @return fallbackMethod
+     */
+    String fallbackMethod() default "";
+
+}
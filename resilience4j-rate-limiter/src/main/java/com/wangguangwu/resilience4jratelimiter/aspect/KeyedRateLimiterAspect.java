@@ -0,0 +1,105 @@
+package com.wangguangwu.resilience4jratelimiter.aspect;
+
+import com.wangguangwu.resilience4jratelimiter.annotation.KeyedRateLimiter;
+import com.wangguangwu.resilience4jratelimiter.component.KeyedRateLimiterRegistry;
+import com.wangguangwu.resilience4jratelimiter.resolver.RateLimitKeyResolver;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import jakarta.annotation.Resource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按调用方限流的切面。
+ * <p>
+ * 根据 {@link KeyedRateLimiter} 的限流维度解析调用方标识，从 {@link KeyedRateLimiterRegistry} 获取该调用方的限流器。
+ * 获取许可失败时与 Resilience4j 的 {@code @RateLimiter} 一致：配置了降级方法则调用降级方法，
+ * 否则抛出 {@link RequestNotPermitted}。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Aspect
+@Component
+public class KeyedRateLimiterAspect {
+
+    @Resource
+    private KeyedRateLimiterRegistry keyedRateLimiterRegistry;
+
+    @Resource
+    private RateLimitKeyResolver rateLimitKeyResolver;
+
+    /**
+     * 已解析的降级方法，避免每次限流都反射查找
+     */
+    private final Map<Method, Method> fallbackMethods = new ConcurrentHashMap<>();
+
+    @Around("@annotation(keyedRateLimiter)")
+    public Object around(ProceedingJoinPoint joinPoint, KeyedRateLimiter keyedRateLimiter) throws Throwable {
+        String key = rateLimitKeyResolver.resolve(keyedRateLimiter.keyType());
+        RateLimiter rateLimiter = keyedRateLimiterRegistry.rateLimiter(keyedRateLimiter.name(), key);
+        if (rateLimiter.acquirePermission()) {
+            return joinPoint.proceed();
+        }
+        RequestNotPermitted exception = RequestNotPermitted.createRequestNotPermitted(rateLimiter);
+        if (keyedRateLimiter.fallbackMethod().isEmpty()) {
+            throw exception;
+        }
+        return fallback(joinPoint, keyedRateLimiter.fallbackMethod(), exception);
+    }
+
+    private Object fallback(ProceedingJoinPoint joinPoint, String fallbackMethodName,
+                            RequestNotPermitted exception) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object target = joinPoint.getTarget();
+        Method fallbackMethod = fallbackMethods.computeIfAbsent(method,
+                m -> findFallbackMethod(target.getClass(), m, fallbackMethodName));
+        Object[] args = fallbackMethod.getParameterCount() == 1
+                ? new Object[]{exception}
+                : appendArgument(joinPoint.getArgs(), exception);
+        try {
+            return fallbackMethod.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 查找降级方法，优先匹配 {@code 原方法参数 + Throwable}，其次匹配只有一个 {@code Throwable} 参数的方法。
+     *
+     * @param targetClass        目标类
+     * @param method             被限流的方法
+     * @param fallbackMethodName 降级方法名称
+     * @return 降级方法
+     * @throws IllegalStateException 未找到降级方法
+     */
+    public static Method findFallbackMethod(Class<?> targetClass, Method method, String fallbackMethodName) {
+        Class<?>[] parameterTypes = Arrays.copyOf(method.getParameterTypes(), method.getParameterCount() + 1);
+        parameterTypes[parameterTypes.length - 1] = Throwable.class;
+        Method fallbackMethod = ReflectionUtils.findMethod(targetClass, fallbackMethodName, parameterTypes);
+        if (fallbackMethod == null) {
+            fallbackMethod = ReflectionUtils.findMethod(targetClass, fallbackMethodName, Throwable.class);
+        }
+        if (fallbackMethod == null) {
+            throw new IllegalStateException("未找到降级方法: " + targetClass.getName() + "#" + fallbackMethodName);
+        }
+        ReflectionUtils.makeAccessible(fallbackMethod);
+        return fallbackMethod;
+    }
+
+    private static Object[] appendArgument(Object[] args, Object argument) {
+        Object[] result = Arrays.copyOf(args, args.length + 1);
+        result[args.length] = argument;
+        return result;
+    }
+}
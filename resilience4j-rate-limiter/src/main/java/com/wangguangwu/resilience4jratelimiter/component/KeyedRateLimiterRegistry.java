@@ -0,0 +1,206 @@
+package com.wangguangwu.resilience4jratelimiter.component;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * 按调用方划分的限流器缓存。
+ * <p>
+ * 每个 {@code 实例名称 + 调用方标识} 对应一个 {@link AtomicRateLimiter}，限流参数取自
+ * {@link RateLimiterRegistry} 中同名实例的配置。按键创建的限流器不注册到 {@link RateLimiterRegistry}，
+ * 避免注册表随调用方数量无限增长。
+ * </p>
+ * <p>
+ * 获取限流器时先无锁读取，只有新键才进入 {@code computeIfAbsent}，因此新键的创建不会阻塞已有键的获取许可。
+ * 超过 {@code idle-timeout-ms} 未被访问的限流器由后台线程定期清理；缓存数量超过 {@code max-size} 时，
+ * 后台线程按最近访问时间淘汰最久未访问的限流器，淘汰到上限的 90%。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+@Component
+public class KeyedRateLimiterRegistry {
+
+    /**
+     * 限流器名称中实例名称与调用方标识之间的分隔符
+     */
+    public static final char SEPARATOR = ':';
+
+    /**
+     * 最近访问时间的更新粒度，避免每次获取许可都写共享变量
+     */
+    private static final long TOUCH_GRANULARITY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Resource
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    private final Map<String, Entry> limiters = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean evictionScheduled = new AtomicBoolean();
+
+    private final LongSupplier nanoClock;
+
+    @Value("${rate-limiter.keyed.max-size:100000}")
+    private int maxSize;
+
+    @Value("${rate-limiter.keyed.idle-timeout-ms:60000}")
+    private long idleTimeoutMillis;
+
+    private ScheduledExecutorService sweeper;
+
+    public KeyedRateLimiterRegistry() {
+        this(System::nanoTime);
+    }
+
+    KeyedRateLimiterRegistry(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 启动后台清理线程。
+     */
+    @PostConstruct
+    public void init() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "keyed-rate-limiter-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, Math.min(idleTimeoutMillis, 1000));
+        sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 关闭后台清理线程。
+     */
+    @PreDestroy
+    public void destroy() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * 获取指定实例、指定调用方的限流器，不存在时按实例配置创建。
+     *
+     * @param name 限流器实例名称
+     * @param key  调用方标识
+     * @return 限流器
+     */
+    public RateLimiter rateLimiter(String name, String key) {
+        String limiterName = name + SEPARATOR + key;
+        long now = nanoClock.getAsLong();
+        Entry entry = limiters.get(limiterName);
+        if (entry == null) {
+            entry = limiters.computeIfAbsent(limiterName, n -> new Entry(
+                    new AtomicRateLimiter(n, configuration(name)), now));
+            if (limiters.size() > maxSize) {
+                scheduleEviction();
+            }
+        } else {
+            entry.touch(now);
+        }
+        return entry.rateLimiter;
+    }
+
+    /**
+     * 当前缓存的所有限流器，用于写入快照。
+     *
+     * @return 限流器
+     */
+    public Collection<RateLimiter> getAllRateLimiters() {
+        List<RateLimiter> rateLimiters = new ArrayList<>(limiters.size());
+        limiters.values().forEach(entry -> rateLimiters.add(entry.rateLimiter));
+        return rateLimiters;
+    }
+
+    /**
+     * 当前缓存的限流器数量。
+     *
+     * @return 限流器数量
+     */
+    public int size() {
+        return limiters.size();
+    }
+
+    /**
+     * 清理空闲的限流器，数量仍超过上限时淘汰最久未访问的限流器。
+     */
+    void sweep() {
+        long now = nanoClock.getAsLong();
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        limiters.entrySet().removeIf(e -> now - e.getValue().lastAccess >= idleNanos);
+        if (limiters.size() > maxSize) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private void scheduleEviction() {
+        if (sweeper != null && evictionScheduled.compareAndSet(false, true)) {
+            sweeper.execute(() -> {
+                evictionScheduled.set(false);
+                evictLeastRecentlyUsed();
+            });
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        int target = maxSize - maxSize / 10;
+        int excess = limiters.size() - target;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<String, Entry>> entries = new ArrayList<>(limiters.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        for (int i = 0; i < excess && i < entries.size(); i++) {
+            limiters.remove(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        log.debug("按调用方限流器数量超过上限 {}，淘汰 {} 个", maxSize, excess);
+    }
+
+    private RateLimiterConfig configuration(String name) {
+        return rateLimiterRegistry.rateLimiter(name).getRateLimiterConfig();
+    }
+
+    /**
+     * 限流器及其最近一次访问时间。
+     */
+    private static final class Entry {
+
+        private final RateLimiter rateLimiter;
+
+        private volatile long lastAccess;
+
+        private Entry(RateLimiter rateLimiter, long now) {
+            this.rateLimiter = rateLimiter;
+            this.lastAccess = now;
+        }
+
+        private void touch(long now) {
+            if (now - lastAccess >= TOUCH_GRANULARITY_NANOS) {
+                lastAccess = now;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.wangguangwu.resilience4jratelimiter.controller;
 
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import com.wangguangwu.resilience4jratelimiter.annotation.KeyedRateLimiter;
+import com.wangguangwu.resilience4jratelimiter.enums.KeyType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,7 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 /**
  * 该控制器实现了基于 Resilience4j 的限流功能。
- * 当请求过于频繁时，调用回退方法返回提示信息。
+ * 每个调用方（IP）拥有独立的限流器，当请求过于频繁时，调用回退方法返回提示信息。
  *
  * @author wangguangwu
  */
@@ -20,7 +21,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class ApiController {
 
     @GetMapping("rateLimit")
-    @RateLimiter(name = "rateLimitApi", fallbackMethod = "fallback")
+    @KeyedRateLimiter(name = "rateLimitApi", keyType = KeyType.IP, fallbackMethod = "fallback")
     public ResponseEntity<String> rateLimitApi() {
         log.info("请求成功");
         return new ResponseEntity<>("请求成功", HttpStatus.OK);
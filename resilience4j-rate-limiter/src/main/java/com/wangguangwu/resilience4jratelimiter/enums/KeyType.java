@@ -0,0 +1,29 @@
+package com.wangguangwu.resilience4jratelimiter.enums;
+
+/**
+ * 枚举类，表示按调用方限流时的限流维度。
+ *
+ * <p>例如：</p>
+ * <ul>
+ *     <li>{@link #IP} - 基于请求方的 IP 地址进行限流。</li>
+ *     <li>{@link #USER} - 基于认证后的用户标识进行限流，缺失时退化为 IP。</li>
+ * </ul>
+ *
+ * @author wangguangwu
+ */
+public enum KeyType {
+
+    /**
+     * 基于请求方的 IP 地址进行限流。
+     */
+    IP,
+
+    /**
+     * 基于认证后的用户标识进行限流，缺失时退化为 IP。
+     * <p>
+     * 按 {@code rate-limiter.keyed.user-header} 读取请求头中的用户标识时，必须部署在会覆盖该请求头的网关之后。
+     * </p>
+     */
+    USER
+
+}
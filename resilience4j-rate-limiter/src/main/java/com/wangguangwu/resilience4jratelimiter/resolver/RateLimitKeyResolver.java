@@ -0,0 +1,66 @@
+package com.wangguangwu.resilience4jratelimiter.resolver;
+
+import com.wangguangwu.resilience4jratelimiter.enums.KeyType;
+import com.wangguangwu.resilience4jratelimiter.ipfilter.ClientIpResolver;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.security.Principal;
+
+/**
+ * 限流键解析器，从当前请求中解析调用方标识。
+ * <p>
+ * IP 由 {@link ClientIpResolver} 解析，只信任可信代理转发的地址。
+ * 用户标识优先取容器认证后的 {@link HttpServletRequest#getUserPrincipal()}；
+ * 只有配置了 {@code rate-limiter.keyed.user-header} 时才读取请求头中的用户标识，
+ * 该请求头由客户端任意填写，只能在会覆盖该请求头的网关之后开启，否则伪造用户标识即可绕过限流。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Component
+public class RateLimitKeyResolver {
+
+    private static final String UNKNOWN = "unknown";
+
+    @Resource
+    private ClientIpResolver clientIpResolver;
+
+    @Value("${rate-limiter.keyed.user-header:}")
+    private String userHeader;
+
+    /**
+     * 解析当前请求的调用方标识。
+     *
+     * @param keyType 限流维度
+     * @return 调用方标识，不在请求上下文中时返回 {@code unknown}
+     */
+    public String resolve(KeyType keyType) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (!(requestAttributes instanceof ServletRequestAttributes servletRequestAttributes)) {
+            return UNKNOWN;
+        }
+        HttpServletRequest request = servletRequestAttributes.getRequest();
+        if (keyType == KeyType.USER) {
+            String user = getUser(request);
+            if (user != null && !user.isBlank()) {
+                return "user:" + user;
+            }
+        }
+        String ip = clientIpResolver.resolve(request);
+        return "ip:" + (ip == null ? UNKNOWN : ip);
+    }
+
+    private String getUser(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return principal.getName();
+        }
+        return userHeader == null || userHeader.isBlank() ? null : request.getHeader(userHeader);
+    }
+}
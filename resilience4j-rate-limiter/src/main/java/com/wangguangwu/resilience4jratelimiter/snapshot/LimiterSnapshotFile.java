@@ -0,0 +1,115 @@
+package com.wangguangwu.resilience4jratelimiter.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 限流器快照文件的读写工具类。
+ * <p>
+ * 文件采用紧凑的二进制格式，通过内存映射读写：
+ * </p>
+ * <pre>
+ * magic(int) | version(short) | count(int)
+ * count × [ nameLength(short) | name(UTF-8) | availablePermissions(int) | timestampMillis(long) ]
+ * </pre>
+ * <p>
+ * 写入时先写临时文件再原子替换，读取方不会看到写了一半的快照。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class LimiterSnapshotFile {
+
+    private static final int MAGIC = 0x5234534E;
+
+    private static final short VERSION = 1;
+
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES;
+
+    private static final int ENTRY_FIXED_BYTES = Short.BYTES + Integer.BYTES + Long.BYTES;
+
+    // 私有化构造函数，防止实例化工具类
+    private LimiterSnapshotFile() {
+    }
+
+    /**
+     * 将限流器状态写入快照文件。
+     *
+     * @param path   快照文件路径
+     * @param states 限流器状态
+     * @throws IOException 写入失败
+     */
+    public static void write(Path path, List<LimiterState> states) throws IOException {
+        List<byte[]> names = new ArrayList<>(states.size());
+        long size = HEADER_BYTES;
+        for (LimiterState state : states) {
+            byte[] name = state.name().getBytes(StandardCharsets.UTF_8);
+            if (name.length > Short.MAX_VALUE) {
+                throw new IOException("限流器名称过长: " + state.name());
+            }
+            names.add(name);
+            size += ENTRY_FIXED_BYTES + name.length;
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putShort(VERSION).putInt(states.size());
+            for (int i = 0; i < states.size(); i++) {
+                LimiterState state = states.get(i);
+                byte[] name = names.get(i);
+                buffer.putShort((short) name.length).put(name)
+                        .putInt(state.availablePermissions()).putLong(state.timestampMillis());
+            }
+            buffer.force();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 读取快照文件。
+     *
+     * @param path 快照文件路径
+     * @return 限流器状态，文件不存在时返回空列表
+     * @throws IOException 读取失败或文件格式不正确
+     */
+    public static List<LimiterState> read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return Collections.emptyList();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException("无法识别的快照文件: " + path);
+            }
+            int count = buffer.getInt();
+            List<LimiterState> states = new ArrayList<>(count);
+            try {
+                for (int i = 0; i < count; i++) {
+                    byte[] name = new byte[buffer.getShort()];
+                    buffer.get(name);
+                    states.add(new LimiterState(new String(name, StandardCharsets.UTF_8),
+                            buffer.getInt(), buffer.getLong()));
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("快照文件已损坏: " + path, e);
+            }
+            return states;
+        }
+    }
+}
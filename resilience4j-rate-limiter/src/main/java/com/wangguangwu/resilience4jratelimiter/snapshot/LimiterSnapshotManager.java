@@ -0,0 +1,163 @@
+package com.wangguangwu.resilience4jratelimiter.snapshot;
+
+import com.wangguangwu.resilience4jratelimiter.component.KeyedRateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流器快照管理器。
+ * <p>
+ * Resilience4j 的限流器在创建时拥有完整的一个周期的许可。
+ * 启动时从快照文件恢复各限流器在重启前已消耗的许可，运行期间定期写入快照，关闭时再写入一次，
+ * 避免滚动发布后每个节点都立即放行一整个周期的请求。
+ * 按调用方创建的限流器以 {@code 实例名称:调用方标识} 为名称一并写入快照。
+ * 通过 {@code rate-limiter.snapshot.enabled=true} 开启。
+ * </p>
+ *
+ * @author wangguangwu
+ * @see LimiterSnapshotFile
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "rate-limiter.snapshot", name = "enabled", havingValue = "true")
+public class LimiterSnapshotManager {
+
+    @Resource
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    @Resource
+    private KeyedRateLimiterRegistry keyedRateLimiterRegistry;
+
+    @Value("${rate-limiter.snapshot.path:${java.io.tmpdir}/resilience4j-rate-limiter.snapshot}")
+    private Path path;
+
+    @Value("${rate-limiter.snapshot.interval-ms:1000}")
+    private long intervalMillis;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 最近一次写入快照文件的状态，状态未变化时跳过写入
+     */
+    private List<LimiterState> lastWritten;
+
+    /**
+     * 恢复快照并启动定期写入任务。
+     */
+    @PostConstruct
+    public void init() {
+        load();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limiter-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::save, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止定期任务，并写入最后一次快照。
+     */
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        save();
+    }
+
+    /**
+     * 从快照文件恢复限流器，读取失败时以空状态启动。
+     */
+    public void load() {
+        long start = System.nanoTime();
+        try {
+            List<LimiterState> states = LimiterSnapshotFile.read(path);
+            states.forEach(this::restore);
+            log.info("从快照恢复 {} 个限流器，耗时 {} ms", states.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            log.warn("读取限流器快照失败，忽略快照: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 将当前限流器状态写入快照文件，与上次写入的状态相同时不写入。
+     */
+    public synchronized void save() {
+        List<LimiterState> states = snapshot();
+        if (states.equals(lastWritten)) {
+            return;
+        }
+        try {
+            LimiterSnapshotFile.write(path, states);
+            lastWritten = states;
+        } catch (IOException e) {
+            log.error("写入限流器快照失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 采集已消耗许可的限流器状态。
+     * <p>
+     * 许可未被消耗的限流器恢复时不需要任何处理，不写入快照；所有限流器都空闲时快照为空，不会反复写入文件。
+     * 写入的状态带有采集时间，存在已消耗许可的限流器时每次都会写入。
+     * </p>
+     */
+    private List<LimiterState> snapshot() {
+        long now = System.currentTimeMillis();
+        List<LimiterState> states = new ArrayList<>();
+        addConsumed(states, rateLimiterRegistry.getAllRateLimiters(), now);
+        addConsumed(states, keyedRateLimiterRegistry.getAllRateLimiters(), now);
+        return states;
+    }
+
+    private static void addConsumed(List<LimiterState> states, Iterable<RateLimiter> rateLimiters, long now) {
+        for (RateLimiter rateLimiter : rateLimiters) {
+            int available = rateLimiter.getMetrics().getAvailablePermissions();
+            if (available < rateLimiter.getRateLimiterConfig().getLimitForPeriod()) {
+                states.add(new LimiterState(rateLimiter.getName(), available, now));
+            }
+        }
+    }
+
+    /**
+     * 快照仍处于同一个刷新周期内时，扣除重启前已消耗的许可。
+     *
+     * @param state 限流器状态
+     */
+    private void restore(LimiterState state) {
+        int separator = state.name().indexOf(KeyedRateLimiterRegistry.SEPARATOR);
+        RateLimiter rateLimiter = separator < 0
+                ? rateLimiterRegistry.rateLimiter(state.name())
+                : keyedRateLimiterRegistry.rateLimiter(state.name().substring(0, separator),
+                state.name().substring(separator + 1));
+        RateLimiterConfig config = rateLimiter.getRateLimiterConfig();
+        long age = System.currentTimeMillis() - state.timestampMillis();
+        if (age < 0 || age >= config.getLimitRefreshPeriod().toMillis()) {
+            return;
+        }
+        int consumed = config.getLimitForPeriod() - Math.max(state.availablePermissions(), 0);
+        if (consumed >= config.getLimitForPeriod()) {
+            rateLimiter.drainPermissions();
+        } else if (consumed > 0) {
+            rateLimiter.acquirePermission(consumed);
+        }
+    }
+}
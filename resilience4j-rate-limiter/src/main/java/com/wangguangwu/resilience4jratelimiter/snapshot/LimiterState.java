@@ -0,0 +1,12 @@
+package com.wangguangwu.resilience4jratelimiter.snapshot;
+
+/**
+ * 单个限流器的状态快照。
+ *
+ * @param name                 限流器名称
+ * @param availablePermissions 快照时当前周期内剩余的许可数
+ * @param timestampMillis      快照时间戳（毫秒）
+ * @author wangguangwu
+ */
+public record LimiterState(String name, int availablePermissions, long timestampMillis) {
+}
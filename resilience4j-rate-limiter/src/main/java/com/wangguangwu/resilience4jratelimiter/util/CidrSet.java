@@ -0,0 +1,131 @@
+package com.wangguangwu.resilience4jratelimiter.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 不可变的 IP 地址段集合，用于判断请求的对端是否属于可信代理等配置的地址。
+ * <p>
+ * 只接受 IP 字面量：字符串先按格式过滤，再交给 {@link InetAddress#getByName(String)} 解析。
+ * 以十六进制字符或冒号开头并包含冒号的字符串只会按 IPv6 字面量解析，严格的点分十进制只会按 IPv4 字面量解析，
+ * 都不会触发 DNS 查询；其他字符串直接视为无法解析。IPv4 映射的 IPv6 地址按 IPv4 匹配。
+ * 配置的地址通常只有几条，查询时顺序匹配。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+public final class CidrSet {
+
+    public static final CidrSet EMPTY = new CidrSet(List.of());
+
+    private static final Pattern IPV4 =
+            Pattern.compile("((25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)\\.){3}(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)");
+
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:][0-9a-fA-F:.]*");
+
+    private final List<Cidr> cidrs;
+
+    private CidrSet(List<Cidr> cidrs) {
+        this.cidrs = cidrs;
+    }
+
+    /**
+     * 解析 IP 或 CIDR 列表。
+     *
+     * @param addresses IP 或 CIDR，例如 {@code 10.0.0.0/8}，忽略空白项
+     * @return 地址段集合
+     * @throws IllegalArgumentException 存在格式错误的地址
+     */
+    public static CidrSet parse(List<String> addresses) {
+        List<Cidr> cidrs = new ArrayList<>();
+        for (String address : addresses) {
+            if (address.isBlank()) {
+                continue;
+            }
+            String value = address.trim();
+            int slash = value.indexOf('/');
+            byte[] network = toBytes(slash < 0 ? value : value.substring(0, slash));
+            int bits = network == null ? -1 : network.length * Byte.SIZE;
+            int prefix = bits;
+            if (network != null && slash >= 0) {
+                try {
+                    prefix = Integer.parseInt(value.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    prefix = -1;
+                }
+            }
+            if (network == null || prefix < 0 || prefix > bits) {
+                throw new IllegalArgumentException("IP 地址格式错误: " + address);
+            }
+            cidrs.add(new Cidr(network, prefix));
+        }
+        return cidrs.isEmpty() ? EMPTY : new CidrSet(List.copyOf(cidrs));
+    }
+
+    /**
+     * 判断 IP 地址是否属于集合中的某个地址段。
+     *
+     * @param ip IP 地址，可以为 null
+     * @return 属于时返回 true，无法解析的地址返回 false
+     */
+    public boolean contains(String ip) {
+        if (ip == null || cidrs.isEmpty()) {
+            return false;
+        }
+        byte[] address = toBytes(ip.trim());
+        if (address == null) {
+            return false;
+        }
+        for (Cidr cidr : cidrs) {
+            if (cidr.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 集合是否为空。
+     *
+     * @return 为空时返回 true
+     */
+    public boolean isEmpty() {
+        return cidrs.isEmpty();
+    }
+
+    private static byte[] toBytes(String ip) {
+        boolean literal = IPV4.matcher(ip).matches() || (ip.indexOf(':') >= 0 && IPV6.matcher(ip).matches());
+        if (!literal) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(ip).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private record Cidr(byte[] network, int prefix) {
+
+        private boolean matches(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int full = prefix / Byte.SIZE;
+            for (int i = 0; i < full; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int rest = prefix % Byte.SIZE;
+            if (rest == 0) {
+                return true;
+            }
+            int mask = 0xff << (Byte.SIZE - rest);
+            return (address[full] & mask) == (network[full] & mask);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.wangguangwu.resilience4jratelimiter.validation;
+
+import com.wangguangwu.resilience4jratelimiter.annotation.KeyedRateLimiter;
+import com.wangguangwu.resilience4jratelimiter.aspect.KeyedRateLimiterAspect;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 限流定义的启动校验。
+ * <p>
+ * 所有单例创建完成后，扫描 Bean 中标注了 {@link KeyedRateLimiter} 的方法并校验注解参数，
+ * 不合法的定义汇总后以 {@link IllegalStateException} 终止启动，避免错误的配置在第一次被限流时才暴露：
+ * 实例名称必须对应 {@code resilience4j.ratelimiter.instances} 中配置的实例，否则 Resilience4j 会静默使用默认配置；
+ * 降级方法必须存在且返回值与原方法兼容。
+ * </p>
+ * <p>
+ * 按调用方的限流器以请求中的调用方标识为键，无法预先创建，这里只校验它们共用的实例配置。
+ * </p>
+ *
+ * @author wangguangwu
+ */
+@Slf4j
+@Component
+public class RateLimiterDefinitionValidator implements SmartInitializingSingleton {
+
+    @Resource
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Resource
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> errors = new ArrayList<>();
+        int definitions = 0;
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType = beanFactory.getType(beanName, false);
+            if (beanType == null) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(beanType);
+            Set<Method> methods = MethodIntrospector.selectMethods(userClass,
+                    (ReflectionUtils.MethodFilter) method ->
+                            AnnotatedElementUtils.hasAnnotation(method, KeyedRateLimiter.class));
+            for (Method method : methods) {
+                definitions++;
+                String problem = validate(userClass, method,
+                        AnnotatedElementUtils.findMergedAnnotation(method, KeyedRateLimiter.class));
+                if (problem != null) {
+                    errors.add(method.getDeclaringClass().getName() + "." + method.getName() + ": " + problem);
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("限流定义不合法:\n" + String.join("\n", errors));
+        }
+        log.info("已校验 {} 个限流定义", definitions);
+    }
+
+    /**
+     * 校验单个限流定义。
+     *
+     * @return 不合法的原因，合法时返回 null
+     */
+    private String validate(Class<?> targetClass, Method method, KeyedRateLimiter keyedRateLimiter) {
+        if (keyedRateLimiter.name().isBlank()) {
+            return "限流器实例名称不可为空";
+        }
+        if (rateLimiterRegistry.find(keyedRateLimiter.name()).isEmpty()) {
+            return "未配置限流器实例 " + keyedRateLimiter.name();
+        }
+        if (keyedRateLimiter.fallbackMethod().isEmpty()) {
+            return null;
+        }
+        Method fallbackMethod;
+        try {
+            fallbackMethod = KeyedRateLimiterAspect.findFallbackMethod(targetClass, method,
+                    keyedRateLimiter.fallbackMethod());
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        }
+        if (method.getReturnType() != void.class
+                && !ClassUtils.isAssignable(method.getReturnType(), fallbackMethod.getReturnType())) {
+            return "降级方法的返回值类型与原方法不兼容";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,95 @@
+package com.wangguangwu.resilience4jratelimiter.component;
+
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 按调用方限流器缓存基准测试
+ * <p>
+ * 创建 10 万个不同调用方的限流器，输出每个键占用的堆内存、新键的创建耗时以及已有键的获取许可耗时。
+ * 默认不执行，通过 {@code mvn test -Dbenchmark.excludedGroups=none -Dgroups=benchmark} 运行。
+ *
+ * @author wangguangwu
+ */
+@Tag("benchmark")
+public class KeyedRateLimiterRegistryBenchmarkTest {
+
+    private static final int KEYS = 100_000;
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final int ACQUIRES_PER_THREAD = 1_000_000;
+
+    @Test
+    public void benchmark100kKeys() throws Exception {
+        RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitForPeriod(3)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        KeyedRateLimiterRegistry registry = new KeyedRateLimiterRegistry();
+        ReflectionTestUtils.setField(registry, "rateLimiterRegistry", rateLimiterRegistry);
+        ReflectionTestUtils.setField(registry, "maxSize", KEYS);
+        ReflectionTestUtils.setField(registry, "idleTimeoutMillis", TimeUnit.MINUTES.toMillis(10));
+        String[] keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "ip:10." + (i >> 16) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+        }
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        for (String key : keys) {
+            registry.rateLimiter("api", key);
+        }
+        long createNanos = System.nanoTime() - start;
+        long heapAfter = usedHeap();
+        assertEquals(KEYS, registry.size());
+
+        System.out.printf("keys=%d, heap per key=%d bytes, create=%d ns/key%n",
+                KEYS, (heapAfter - heapBefore) / KEYS, createNanos / KEYS);
+
+        // 每个 CPU 一个线程，随机访问已有键
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long begin = System.nanoTime();
+                for (int i = 0; i < ACQUIRES_PER_THREAD; i++) {
+                    registry.rateLimiter("api", keys[random.nextInt(KEYS)]).acquirePermission();
+                }
+                return System.nanoTime() - begin;
+            }));
+        }
+        long totalNanos = 0;
+        for (Future<Long> future : futures) {
+            totalNanos += future.get();
+        }
+        executor.shutdown();
+
+        System.out.printf("threads=%d, acquire=%d ns/op%n", THREADS, totalNanos / ((long) THREADS * ACQUIRES_PER_THREAD));
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,84 @@
+package com.wangguangwu.resilience4jratelimiter.component;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按调用方限流器缓存测试
+ * <p>
+ * 验证不同调用方的限流器相互独立，以及空闲清理和数量上限淘汰。
+ *
+ * @author wangguangwu
+ */
+public class KeyedRateLimiterRegistryTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private KeyedRateLimiterRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitForPeriod(3)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        registry = new KeyedRateLimiterRegistry(clock::get);
+        ReflectionTestUtils.setField(registry, "rateLimiterRegistry", rateLimiterRegistry);
+        ReflectionTestUtils.setField(registry, "maxSize", 10);
+        ReflectionTestUtils.setField(registry, "idleTimeoutMillis", 1000L);
+    }
+
+    @Test
+    public void testLimitersArePerKey() {
+        RateLimiter first = registry.rateLimiter("api", "ip:1.1.1.1");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(first.acquirePermission());
+        }
+        assertFalse(first.acquirePermission());
+
+        // 另一个调用方不受影响
+        assertTrue(registry.rateLimiter("api", "ip:2.2.2.2").acquirePermission());
+        // 同一个调用方复用同一个限流器
+        assertSame(first, registry.rateLimiter("api", "ip:1.1.1.1"));
+        assertEquals("api:ip:1.1.1.1", first.getName());
+    }
+
+    @Test
+    public void testSweepRemovesIdleLimiters() {
+        registry.rateLimiter("api", "idle");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        registry.rateLimiter("api", "active");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+
+        registry.sweep();
+
+        assertEquals(1, registry.size());
+        assertEquals("api:active", registry.getAllRateLimiters().iterator().next().getName());
+    }
+
+    @Test
+    public void testSweepEvictsLeastRecentlyUsedOverMaxSize() {
+        for (int i = 0; i < 20; i++) {
+            registry.rateLimiter("api", "key-" + i);
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        registry.sweep();
+
+        // 淘汰到上限的 90%，保留最近访问的键
+        assertEquals(9, registry.size());
+        assertTrue(registry.getAllRateLimiters().stream().anyMatch(l -> l.getName().equals("api:key-19")));
+        assertTrue(registry.getAllRateLimiters().stream().noneMatch(l -> l.getName().equals("api:key-0")));
+    }
+}
@@ -0,0 +1,45 @@
+package com.wangguangwu.resilience4jratelimiter.ipfilter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 客户端 IP 解析单元测试
+ *
+ * @author wangguangwu
+ */
+public class ClientIpResolverTest {
+
+    @Test
+    public void testForwardedForIgnoredWithoutTrustedProxies() {
+        ClientIpResolver resolver = resolver(List.of());
+
+        // 客户端伪造的地址不生效，不会为每个伪造地址创建一个限流器
+        assertEquals("203.0.113.5", resolver.resolve("203.0.113.5", "198.51.100.1"));
+        assertEquals("203.0.113.5", resolver.resolve("203.0.113.5", "198.51.100.1, 198.51.100.2"));
+        assertNull(resolver.resolve(null, "198.51.100.1"));
+    }
+
+    @Test
+    public void testRightMostUntrustedHop() {
+        ClientIpResolver resolver = resolver(List.of("10.0.0.0/8", "::1"));
+
+        assertEquals("203.0.113.5", resolver.resolve("203.0.113.5", "10.0.0.1"));
+        assertEquals("198.51.100.7", resolver.resolve("10.0.0.2", "10.9.9.9, 198.51.100.7, 10.1.1.1"));
+        assertEquals("198.51.100.7", resolver.resolve("0:0:0:0:0:0:0:1", "198.51.100.7"));
+        // 无法解析的地址不属于可信代理
+        assertEquals("example.com", resolver.resolve("10.0.0.2", "198.51.100.7, example.com"));
+    }
+
+    private static ClientIpResolver resolver(List<String> trustedProxies) {
+        ClientIpResolver resolver = new ClientIpResolver();
+        ReflectionTestUtils.setField(resolver, "trustedProxies", trustedProxies);
+        resolver.init();
+        return resolver;
+    }
+}
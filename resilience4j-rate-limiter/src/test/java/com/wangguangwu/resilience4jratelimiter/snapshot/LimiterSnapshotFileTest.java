@@ -0,0 +1,49 @@
+package com.wangguangwu.resilience4jratelimiter.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 限流器快照文件单元测试
+ *
+ * @author wangguangwu
+ */
+public class LimiterSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path path = tempDir.resolve("limiter.snapshot");
+        List<LimiterState> states = List.of(
+                new LimiterState("rateLimitApi", 1, 1_700_000_000_000L),
+                new LimiterState("rateLimitApi:127.0.0.1", -2, 1_700_000_000_500L));
+
+        LimiterSnapshotFile.write(path, states);
+
+        assertEquals(states, LimiterSnapshotFile.read(path));
+    }
+
+    @Test
+    public void testReadMissingFile() throws IOException {
+        assertTrue(LimiterSnapshotFile.read(tempDir.resolve("missing.snapshot")).isEmpty());
+    }
+
+    @Test
+    public void testReadCorruptedFile() throws IOException {
+        Path path = tempDir.resolve("corrupted.snapshot");
+        Files.write(path, new byte[]{0x52, 0x34, 0x53, 0x4E, 0, 1, 0, 0, 0, 9, 0, 1});
+
+        assertThrows(IOException.class, () -> LimiterSnapshotFile.read(path));
+    }
+}
@@ -0,0 +1,76 @@
+package com.wangguangwu.resilience4jratelimiter.validation;
+
+import com.wangguangwu.resilience4jratelimiter.annotation.KeyedRateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 限流定义启动校验单元测试
+ *
+ * @author wangguangwu
+ */
+public class RateLimiterDefinitionValidatorTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withBean(RateLimiterRegistry.class, RateLimiterDefinitionValidatorTest::registry)
+            .withBean(RateLimiterDefinitionValidator.class);
+
+    @Test
+    public void testValidDefinitionsStart() {
+        runner.withBean(ValidApi.class).run(context -> assertThat(context).hasNotFailed());
+    }
+
+    @Test
+    public void testInvalidDefinitionFailsStartup() {
+        runner.withBean(InvalidApi.class).run(context -> assertThat(context).hasFailed()
+                .getFailure()
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(InvalidApi.class.getName() + ".unknownInstance: 未配置限流器实例 missing")
+                .hasMessageContaining(InvalidApi.class.getName() + ".missingFallback: 未找到降级方法")
+                .hasMessageContaining(InvalidApi.class.getName() + ".incompatibleFallback: 降级方法的返回值类型与原方法不兼容"));
+    }
+
+    private static RateLimiterRegistry registry() {
+        RateLimiterRegistry registry = RateLimiterRegistry.ofDefaults();
+        registry.rateLimiter("api", RateLimiterConfig.ofDefaults());
+        return registry;
+    }
+
+    static class ValidApi {
+
+        @KeyedRateLimiter(name = "api", fallbackMethod = "fallback")
+        public String action(String id) {
+            return id;
+        }
+
+        public String fallback(String id, Throwable e) {
+            return "fallback";
+        }
+    }
+
+    static class InvalidApi {
+
+        @KeyedRateLimiter(name = "missing")
+        public String unknownInstance() {
+            return "success";
+        }
+
+        @KeyedRateLimiter(name = "api", fallbackMethod = "absent")
+        public String missingFallback() {
+            return "success";
+        }
+
+        @KeyedRateLimiter(name = "api", fallbackMethod = "fallback")
+        public String incompatibleFallback() {
+            return "success";
+        }
+
+        public Integer fallback(Throwable e) {
+            return 0;
+        }
+    }
+}